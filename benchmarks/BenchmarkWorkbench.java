@@ -0,0 +1,116 @@
+import fsm.bench.FsmWorkbench;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Random;
+
+// fsm.bench benchmarklarının varsayılan paketteki sınıflara giriş noktası
+public class BenchmarkWorkbench implements FsmWorkbench {
+    private FSM fsm = new FSM();
+    private final CommandInterpreter interpreter = new CommandInterpreter();
+    private final CommandProcessor processor = new CommandProcessor();
+    private final Serializer serializer = new Serializer();
+
+    public BenchmarkWorkbench() {
+        MachineCache.setEnabled(false); // loadScript aynı dosyayı tekrar yükler, önbellek isabeti ölçümü bozar
+    }
+
+    @Override
+    public void buildRandom(int states, int symbols, long seed) {
+        Random random = new Random(seed);
+        FSM machine = new FSM();
+        for (int s = 0; s < symbols; s++) {
+            machine.addSymbol(String.valueOf(SYMBOL_ALPHABET.charAt(s)));
+        }
+        for (int q = 0; q < states; q++) {
+            machine.addState("Q" + q);
+        }
+        machine.setInitialState("Q0");
+        for (int q = 0; q < states; q++) {
+            if (random.nextInt(4) == 0) machine.addFinalState("Q" + q);
+        }
+        for (int q = 0; q < states; q++) {
+            for (int s = 0; s < symbols; s++) {
+                machine.addTransition(String.valueOf(SYMBOL_ALPHABET.charAt(s)), "Q" + q, "Q" + random.nextInt(states));
+            }
+        }
+        fsm = machine;
+    }
+
+    @Override
+    public String randomInput(int length, int symbols, long seed) {
+        Random random = new Random(seed);
+        char[] input = new char[length];
+        for (int i = 0; i < length; i++) {
+            input[i] = SYMBOL_ALPHABET.charAt(random.nextInt(symbols));
+        }
+        return new String(input);
+    }
+
+    @Override
+    public List<String> execute(String input) {
+        return fsm.execute(input);
+    }
+
+    @Override
+    public boolean accepts(String input) {
+        return fsm.accepts(input);
+    }
+
+    @Override
+    public void writeScript(String filename, int transitionsPerLine) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
+            writer.write("SYMBOLS " + String.join(" ", fsm.symbolsView()) + ";");
+            writer.newLine();
+            writer.write("STATES " + String.join(" ", fsm.statesView()) + ";");
+            writer.newLine();
+            writer.write("INITIAL-STATE " + fsm.getInitialState() + ";");
+            writer.newLine();
+            if (!fsm.finalStatesView().isEmpty()) {
+                writer.write("FINAL-STATES " + String.join(" ", fsm.finalStatesView()) + ";");
+                writer.newLine();
+            }
+            StringBuilder line = new StringBuilder();
+            int[] count = {0};
+            TransitionTable table = fsm.getTransitionTable();
+            table.forEach((symbol, from, to) -> {
+                line.append(count[0] == 0 ? "TRANSITIONS " : ", ")
+                        .append(table.getSymbolName(symbol)).append(' ')
+                        .append(table.getStateName(from)).append(' ')
+                        .append(table.getStateName(to));
+                if (++count[0] == transitionsPerLine) {
+                    line.append(";\n");
+                    count[0] = 0;
+                }
+            });
+            if (count[0] != 0) line.append(";\n");
+            writer.write(line.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void processLine(String line) throws Exception {
+        interpreter.processLine(line);
+    }
+
+    @Override
+    public void loadScript(String filename) throws Exception {
+        processor.processCommand(List.of("CLEAR"));
+        processor.processCommand(List.of("LOAD", filename));
+    }
+
+    @Override
+    public void compile(String filename) throws Exception {
+        serializer.serializeFSM(fsm, filename);
+    }
+
+    @Override
+    public void loadCompiled(String filename) throws Exception {
+        fsm = serializer.deserializeFSM(filename);
+    }
+}
@@ -0,0 +1,53 @@
+package fsm.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// addTransition ile toplu ekleme: states * symbols geçiş, boş makineden başlayarak
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuildBenchmark {
+    @Param({"1024", "16384"})
+    int states;
+
+    @Param({"2", "36"})
+    int symbols;
+
+    @Param({"42"})
+    long seed;
+
+    private FsmWorkbench workbench;
+
+    @Setup
+    public void setUp() {
+        SilentOutput.install();
+        workbench = FsmWorkbench.create();
+    }
+
+    @TearDown
+    public void tearDown() {
+        SilentOutput.restore();
+    }
+
+    @Benchmark
+    public FsmWorkbench addTransitions() {
+        workbench.buildRandom(states, symbols, seed);
+        return workbench;
+    }
+}
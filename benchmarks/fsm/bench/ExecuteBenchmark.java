@@ -0,0 +1,66 @@
+package fsm.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// FSM.execute (izli) ve accepts (sadece karar) farklı alfabe/durum boyutlarında
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecuteBenchmark {
+    @Param({"16", "1024", "16384"})
+    int states;
+
+    @Param({"2", "10", "36"})
+    int symbols;
+
+    @Param({"10000"})
+    int inputLength;
+
+    @Param({"42"})
+    long seed;
+
+    private FsmWorkbench workbench;
+    private String input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SilentOutput.install();
+        workbench = FsmWorkbench.create();
+        workbench.buildRandom(states, symbols, seed);
+        input = workbench.randomInput(inputLength, symbols, seed + 1);
+        workbench.accepts(input); // derlenmiş tablo ölçüme girmesin
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SilentOutput.restore();
+    }
+
+    @Benchmark
+    public List<String> execute() {
+        return workbench.execute(input);
+    }
+
+    @Benchmark
+    public boolean accepts() {
+        return workbench.accepts(input);
+    }
+}
@@ -0,0 +1,38 @@
+package fsm.bench;
+
+import java.util.List;
+
+// Uygulama sınıfları varsayılan pakette, JMH ise paketsiz benchmark kabul etmiyor.
+// Benchmarklar makineye bu arayüz üzerinden ulaşır, uygulaması varsayılan paketteki BenchmarkWorkbench.
+public interface FsmWorkbench {
+    String SYMBOL_ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    static FsmWorkbench create() {
+        try {
+            return (FsmWorkbench) Class.forName("BenchmarkWorkbench").getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BenchmarkWorkbench is not on the classpath", e);
+        }
+    }
+
+    // Rastgele tam bir DFA kurar: her (sembol, durum) için addTransition çağrılır
+    void buildRandom(int states, int symbols, long seed);
+
+    String randomInput(int length, int symbols, long seed);
+
+    List<String> execute(String input);
+
+    boolean accepts(String input);
+
+    // Mevcut makineyi LOAD ile okunabilen bir komut dosyasına yazar
+    void writeScript(String filename, int transitionsPerLine);
+
+    // CommandInterpreter'a boş bir makine üzerinde komut satırı verir
+    void processLine(String line) throws Exception;
+
+    void loadScript(String filename) throws Exception;
+
+    void compile(String filename) throws Exception;
+
+    void loadCompiled(String filename) throws Exception;
+}
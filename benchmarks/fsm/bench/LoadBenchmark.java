@@ -0,0 +1,63 @@
+package fsm.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+// LOAD <script>: CommandProcessor.handleLoadFromTextFile büyük komut dosyalarında
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark {
+    @Param({"1024", "16384"})
+    int states;
+
+    @Param({"10"})
+    int symbols;
+
+    @Param({"1", "16"})
+    int transitionsPerLine;
+
+    @Param({"42"})
+    long seed;
+
+    private FsmWorkbench workbench;
+    private String script;
+
+    @Setup
+    public void setUp() {
+        SilentOutput.install();
+        workbench = FsmWorkbench.create();
+        workbench.buildRandom(states, symbols, seed);
+        // Serializer ve LOAD dizin ayırıcısı kabul etmez, dosyalar çalışma dizinine yazılır
+        script = "jmh-load-" + states + "-" + symbols + "-" + transitionsPerLine + ".txt";
+        workbench.writeScript(script, transitionsPerLine);
+    }
+
+    @TearDown
+    public void tearDown() {
+        new File(script).delete();
+        SilentOutput.restore();
+    }
+
+    @Benchmark
+    public FsmWorkbench loadScript() throws Exception {
+        workbench.loadScript(script);
+        return workbench;
+    }
+}
@@ -0,0 +1,76 @@
+package fsm.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// CommandInterpreter.processLine: tek satırda verilen uzun TRANSITIONS listesi ve kısa komutlar
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+    private static final int STATES = 64;
+    private static final int SYMBOLS = 10;
+
+    @Param({"1", "64", "640"})
+    int transitionsPerLine;
+
+    @Param({"42"})
+    long seed;
+
+    private FsmWorkbench workbench;
+    private String transitionLine;
+    private String commandLine;
+
+    @Setup
+    public void setUp() throws Exception {
+        SilentOutput.install();
+        workbench = FsmWorkbench.create();
+        StringBuilder states = new StringBuilder("STATES");
+        for (int q = 0; q < STATES; q++) states.append(" Q").append(q);
+        workbench.processLine("SYMBOLS " + String.join(" ", FsmWorkbench.SYMBOL_ALPHABET.substring(0, SYMBOLS).split("")));
+        workbench.processLine(states.toString());
+        workbench.processLine("INITIAL-STATE Q0");
+
+        Random random = new Random(seed);
+        StringBuilder line = new StringBuilder("TRANSITIONS ");
+        for (int i = 0; i < transitionsPerLine; i++) {
+            if (i > 0) line.append(", ");
+            line.append(FsmWorkbench.SYMBOL_ALPHABET.charAt(i % SYMBOLS))
+                    .append(" Q").append(i / SYMBOLS % STATES)
+                    .append(" Q").append(random.nextInt(STATES));
+        }
+        transitionLine = line.toString();
+        commandLine = "INITIAL-STATE Q0 EXECUTE-VERDICT 0123456789 MODE STORAGE";
+    }
+
+    @TearDown
+    public void tearDown() {
+        SilentOutput.restore();
+    }
+
+    @Benchmark
+    public void transitions() throws Exception {
+        workbench.processLine(transitionLine);
+    }
+
+    @Benchmark
+    public void mixedCommands() throws Exception {
+        workbench.processLine(commandLine);
+    }
+}
@@ -0,0 +1,74 @@
+package fsm.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+// COMPILE / LOAD .fs: Serializer yazma, okuma ve ikisi birlikte
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializerBenchmark {
+    @Param({"1024", "65536"})
+    int states;
+
+    @Param({"10", "36"})
+    int symbols;
+
+    @Param({"42"})
+    long seed;
+
+    private FsmWorkbench workbench;
+    private String compiled;
+    private String roundTrip;
+
+    @Setup
+    public void setUp() throws Exception {
+        SilentOutput.install();
+        workbench = FsmWorkbench.create();
+        workbench.buildRandom(states, symbols, seed);
+        compiled = "jmh-serializer-" + states + "-" + symbols + ".fs";
+        roundTrip = "jmh-roundtrip-" + states + "-" + symbols + ".fs";
+        workbench.compile(compiled);
+    }
+
+    @TearDown
+    public void tearDown() {
+        new File(compiled).delete();
+        new File(roundTrip).delete();
+        SilentOutput.restore();
+    }
+
+    @Benchmark
+    public void write() throws Exception {
+        workbench.compile(roundTrip);
+    }
+
+    @Benchmark
+    public FsmWorkbench read() throws Exception {
+        workbench.loadCompiled(compiled);
+        return workbench;
+    }
+
+    @Benchmark
+    public FsmWorkbench roundTrip() throws Exception {
+        workbench.compile(roundTrip);
+        workbench.loadCompiled(roundTrip);
+        return workbench;
+    }
+}
@@ -0,0 +1,27 @@
+package fsm.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+// execute ve komutlar sonucu System.out'a yazar; ölçümü terminal hızı belirlemesin
+final class SilentOutput {
+    private static final PrintStream DISCARD = new PrintStream(OutputStream.nullOutputStream());
+    private static PrintStream original;
+
+    private SilentOutput() {
+    }
+
+    static synchronized void install() {
+        if (original == null) {
+            original = System.out;
+            System.setOut(DISCARD);
+        }
+    }
+
+    static synchronized void restore() {
+        if (original != null) {
+            System.setOut(original);
+            original = null;
+        }
+    }
+}
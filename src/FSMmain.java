@@ -1,7 +1,46 @@
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
 import java.util.Properties;
 
 
@@ -64,11 +103,40 @@ interface InterFSM {
     List<String> execute(String input);
     void clear();
     List<String> traceFSM(String input);
+    boolean[] executeBatch(List<? extends CharSequence> inputs);
+    boolean accepts(CharSequence input);
+    int trace(CharSequence input, int[] stateIds);
+    int minimize();
 
+    // Makine her değiştiğinde artar; süreç içinde tekildir (yeni makine yeni numara alır)
+    long getVersion();
+
+    // get* kopya döndürür; aşağıdaki okuma API'si kopyalamaz
     Set<String> getSymbols();
     Set<String> getStates();
     Set<String> getFinalStates();
     Map<Pair<String, String>, String> getTransitions();
+
+    // Canlı, değiştirilemez görünümler: makine değişince içerikleri de değişir
+    Set<String> symbolsView();
+    Set<String> statesView();
+    Set<String> finalStatesView();
+
+    // Nokta sorguları, isimler büyük/küçük harf duyarsız
+    boolean isFinal(String state);
+    boolean hasSymbol(String symbol);
+    String lookup(String symbol, String state); // hedef durum, geçiş yoksa null
+
+    interface TransitionVisitor {
+        void visit(String symbol, String from, String to);
+    }
+
+    // Tüm geçişler (NFA ek hedefleri en sonda), ara koleksiyon kurmadan
+    void forEachTransition(TransitionVisitor visitor);
+
+    // NFA modu: aynı <sembol,durum> için birden fazla hedef
+    boolean setNondeterministic(boolean enabled);
+    boolean isNondeterministic();
 }
 
  class Pair<F, S> {
@@ -103,18 +171,56 @@ interface InterFSM {
 }
 
  class FSM implements InterFSM {
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
     private Set<String> symbols;
     private Set<String> states;
     private Set<String> finalStates;
     private String initialState;
     private String currentState;
-    private Map<Pair<String, String>, String> transitions;
+    private TransitionTable transitions;
+    private CompiledFSM compiled; // execute için derlenmiş tablo, her değişiklikte sıfırlanır
+    private boolean nondeterministic;
+    private Map<Pair<String, String>, Set<String>> extraTargets; // NFA: transitions dışındaki ek hedefler
+    private NFAEngine nfaEngine;
+    private int nfaCacheSize = NFAEngine.DEFAULT_CACHE_SIZE;
+    private boolean offHeap; // derlenmiş tablo Arena'dan ayrılan bellekte tutulur
+    private CompiledFSM mappedSource; // LOAD ... MAPPED: transitions ilk ihtiyaçta buradan kurulur
+    private long version = VERSIONS.incrementAndGet();
+    // minimize alanları yeni kümelerle değiştirdiğinden görünümler alana her seferinde yeniden bakar
+    private final Set<String> symbolsView = new LiveView(() -> symbols);
+    private final Set<String> statesView = new LiveView(() -> states);
+    private final Set<String> finalStatesView = new LiveView(() -> finalStates);
+
+    private static final class LiveView extends AbstractSet<String> {
+        private final Supplier<Set<String>> source;
+
+        LiveView(Supplier<Set<String>> source) {
+            this.source = source;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return Collections.unmodifiableSet(source.get()).iterator();
+        }
+
+        @Override
+        public int size() {
+            return source.get().size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return source.get().contains(o);
+        }
+    }
 
     public FSM() {
         symbols = new HashSet<>();
         states = new LinkedHashSet<>();
         finalStates = new HashSet<>();
-        transitions = new HashMap<>();
+        transitions = new TransitionTable();
+        extraTargets = new HashMap<>();
         initialState = null;
         currentState = null;
     }
@@ -135,7 +241,246 @@ interface InterFSM {
 
      @Override
      public Map<Pair<String, String>, String> getTransitions() {
-         return new HashMap<>(transitions);
+         Map<Pair<String, String>, String> copy = new HashMap<>();
+         TransitionTable transitions = transitions();
+         transitions.forEach((symbol, from, to) -> copy.put(
+                 new Pair<>(transitions.getSymbolName(symbol), transitions.getStateName(from)),
+                 transitions.getStateName(to)));
+         return copy;
+     }
+
+     @Override
+     public Set<String> symbolsView() {
+         return symbolsView;
+     }
+
+     @Override
+     public Set<String> statesView() {
+         return statesView;
+     }
+
+     @Override
+     public Set<String> finalStatesView() {
+         return finalStatesView;
+     }
+
+     @Override
+     public boolean isFinal(String state) {
+         return finalStates.contains(state.toUpperCase());
+     }
+
+     // Hiçbir final duruma ulaşamayan durum; sadece DFA
+     boolean isDead(String state) {
+         if (nondeterministic) {
+             throw new IllegalStateException("isDead requires a deterministic machine");
+         }
+         CompiledFSM machine = compile();
+         int id = machine.getStateId(state.toUpperCase());
+         return id != CompiledFSM.NO_TRANSITION && machine.isDead(id);
+     }
+
+     @Override
+     public boolean hasSymbol(String symbol) {
+         return symbols.contains(symbol.toUpperCase());
+     }
+
+     // Eşlenmiş ve henüz değişmemiş makinede tablo heap'e alınmadan dosyadan okunur
+     @Override
+     public String lookup(String symbol, String state) {
+         symbol = symbol.toUpperCase();
+         state = state.toUpperCase();
+         if (transitions != null) {
+             return transitions.get(symbol, state);
+         }
+         int from = mappedSource.getStateId(state);
+         int symbolId = symbol.length() == 1 ? mappedSource.symbolId(symbol.charAt(0)) : CompiledFSM.NO_SYMBOL;
+         if (from == CompiledFSM.NO_TRANSITION || symbolId == CompiledFSM.NO_SYMBOL) return null;
+         int to = mappedSource.next(from, symbolId);
+         return to == CompiledFSM.NO_TRANSITION ? null : mappedSource.getStateName(to);
+     }
+
+     @Override
+     public void forEachTransition(TransitionVisitor visitor) {
+         if (transitions != null) {
+             TransitionTable table = transitions;
+             table.forEach((symbol, from, to) -> visitor.visit(
+                     table.getSymbolName(symbol), table.getStateName(from), table.getStateName(to)));
+         } else {
+             CompiledFSM source = mappedSource;
+             for (int q = 0; q < source.getStateCount(); q++) {
+                 for (int a = 0; a < source.getClassCount(); a++) {
+                     int to = source.next(q, a);
+                     if (to == CompiledFSM.NO_TRANSITION) continue;
+                     for (String symbol : source.getClassSymbols(a)) {
+                         visitor.visit(symbol, source.getStateName(q), source.getStateName(to));
+                     }
+                 }
+             }
+         }
+         for (Map.Entry<Pair<String, String>, Set<String>> entry : extraTargets.entrySet()) {
+             for (String to : entry.getValue()) {
+                 visitor.visit(entry.getKey().getFirst(), entry.getKey().getSecond(), to);
+             }
+         }
+     }
+
+     // Binary .fs yüklemesi için: veriler doğrulanmış kabul edilir, addTransition tekrar çalışmaz
+     static FSM restore(String[] symbolNames, String[] stateNames, int[] finalIds, int initial, int current,
+                        int[] table, boolean nondeterministic, int[] extras) {
+         FSM fsm = new FSM();
+         fsm.symbols.addAll(Arrays.asList(symbolNames));
+         fsm.states.addAll(Arrays.asList(stateNames));
+         for (int id : finalIds) {
+             fsm.finalStates.add(stateNames[id]);
+         }
+         fsm.initialState = initial < 0 ? null : stateNames[initial];
+         fsm.currentState = current < 0 ? null : stateNames[current];
+         fsm.transitions = null; // eşlenmiş yüklemede restoreMapped doldurur
+         if (table != null) {
+             fsm.transitions = new TransitionTable(symbolNames, stateNames);
+             int symbolCount = symbolNames.length;
+             for (int i = 0; i < table.length; i++) {
+                 if (table[i] != CompiledFSM.NO_TRANSITION) {
+                     fsm.transitions.put(i % symbolCount, i / symbolCount, table[i]);
+                 }
+             }
+         }
+         fsm.nondeterministic = nondeterministic;
+         for (int i = 0; i < extras.length; i += 3) {
+             fsm.extraTargets.computeIfAbsent(new Pair<>(symbolNames[extras[i]], stateNames[extras[i + 1]]),
+                     k -> new LinkedHashSet<>()).add(stateNames[extras[i + 2]]);
+         }
+         return fsm;
+     }
+
+     // Eşlenmiş .fs dosyası: geçiş tablosu heap'e kopyalanmaz, makine değişene kadar dosyadan okunur
+     static FSM restoreMapped(String[] symbolNames, String[] stateNames, int[] finalIds, int initial, int current,
+                              MemorySegment table, boolean nondeterministic, int[] extras) {
+         FSM fsm = restore(symbolNames, stateNames, finalIds, initial, current, null, nondeterministic, extras);
+         boolean[] finals = new boolean[stateNames.length];
+         for (int id : finalIds) {
+             finals[id] = true;
+         }
+         fsm.mappedSource = new CompiledFSM(symbolNames, stateNames, finals, initial, table);
+         fsm.compiled = fsm.mappedSource;
+         return fsm;
+     }
+
+     // Paylaşılan anlık görüntüden makine: tablo kopyalanmaz, ilk değişiklikte transitions() kopyalar
+     static FSM fromSnapshot(FSMSnapshot snapshot) {
+         FSM fsm = restore(snapshot.symbols, snapshot.states, snapshot.finals, snapshot.initial, snapshot.current,
+                 null, snapshot.nondeterministic, snapshot.extras);
+         fsm.mappedSource = snapshot.compiled;
+         fsm.compiled = snapshot.compiled;
+         return fsm;
+     }
+
+     FSMSnapshot snapshot() {
+         String[] symbolNames = symbols.toArray(new String[0]);
+         String[] stateNames = states.toArray(new String[0]);
+         Map<String, Integer> stateIds = new HashMap<>(stateNames.length * 2);
+         for (int i = 0; i < stateNames.length; i++) stateIds.put(stateNames[i], i);
+         List<String> symbolList = Arrays.asList(symbolNames);
+
+         int[] finals = new int[finalStates.size()];
+         int f = 0;
+         for (String state : finalStates) finals[f++] = stateIds.get(state);
+         int[] extras = new int[extraTargets.values().stream().mapToInt(Set::size).sum() * 3];
+         int e = 0;
+         for (Map.Entry<Pair<String, String>, Set<String>> entry : extraTargets.entrySet()) {
+             for (String to : entry.getValue()) {
+                 extras[e++] = symbolList.indexOf(entry.getKey().getFirst());
+                 extras[e++] = stateIds.get(entry.getKey().getSecond());
+                 extras[e++] = stateIds.get(to);
+             }
+         }
+         return new FSMSnapshot(symbolNames, stateNames, finals,
+                 stateIds.getOrDefault(initialState, -1), stateIds.getOrDefault(currentState, -1),
+                 nondeterministic, extras, compile());
+     }
+
+     // Eşlenmiş makinede geçişler ancak değişiklik ya da isimle erişim gerekince heap'e alınır
+     private TransitionTable transitions() {
+         if (transitions == null) {
+             transitions = mappedSource.toTransitionTable();
+             mappedSource = null;
+         }
+         return transitions;
+     }
+
+     // Eşlenmiş bir dosyadan yüklenmiş ve henüz değişmemiş makineler de heap dışındadır;
+     // paylaşılan anlık görüntüden kurulan makine ise kaynağının saklandığı yerdedir
+     boolean isOffHeap() {
+         return offHeap || mappedSource != null && mappedSource.isOffHeap();
+     }
+
+     void setOffHeap(boolean enabled) {
+         if (offHeap == enabled) return;
+         offHeap = enabled;
+         invalidate();
+     }
+
+     String getInitialState() {
+         return initialState;
+     }
+
+     // MODE, STORAGE ve NFA önbellek boyutu hiç değiştirilmediyse true; önbellekteki makineler bu ayarlarla kurulur
+     boolean hasDefaultSettings() {
+         return !nondeterministic && !offHeap && nfaCacheSize == NFAEngine.DEFAULT_CACHE_SIZE;
+     }
+
+     int getSymbolCount() {
+         return symbols.size();
+     }
+
+     int getStateCount() {
+         return states.size();
+     }
+
+     TransitionTable getTransitionTable() {
+         return transitions();
+     }
+
+     Map<Pair<String, String>, Set<String>> getNondeterministicTransitions() {
+         Map<Pair<String, String>, Set<String>> copy = new HashMap<>();
+         for (Map.Entry<Pair<String, String>, Set<String>> entry : extraTargets.entrySet()) {
+             copy.put(entry.getKey(), new LinkedHashSet<>(entry.getValue()));
+         }
+         return copy;
+     }
+
+     @Override
+     public boolean isNondeterministic() {
+         return nondeterministic;
+     }
+
+     @Override
+     public boolean setNondeterministic(boolean enabled) {
+         if (!enabled && !extraTargets.isEmpty()) {
+             return false; // ek hedefler varken DFA moduna dönülemez
+         }
+         if (nondeterministic != enabled) {
+             nondeterministic = enabled;
+             invalidate();
+         }
+         return true;
+     }
+
+     void setNfaCacheSize(int cacheSize) {
+         if (nfaCacheSize == cacheSize) return;
+         nfaCacheSize = cacheSize;
+         invalidate();
+     }
+
+     private void invalidate() {
+         compiled = null;
+         nfaEngine = null;
+         version = VERSIONS.incrementAndGet();
+     }
+
+     @Override
+     public long getVersion() {
+         return version;
      }
 
      @Override
@@ -154,6 +499,7 @@ interface InterFSM {
             System.out.println("Warning: symbol " + symbol + " already declared.");
             return false;
         }
+        invalidate();
         return true;
     }
 
@@ -167,22 +513,30 @@ interface InterFSM {
         boolean added = states.add(state);
         if (!added) {
             System.out.println("Warning: state " + state + " already declared.");
-        } else if (initialState == null) {
+            return false;
+        }
+        if (initialState == null) {
             initialState = state;
             currentState = state;
         }
-        return added;
+        invalidate();
+        return true;
     }
 
     @Override
     public boolean setInitialState(String state) {
         state = state.toUpperCase();
+        boolean changed = !state.equals(initialState);
         if (!states.contains(state)) {
             System.out.println("Warning: " + state + " was not previously declared as a state.");
             states.add(state);
+            changed = true;
         }
         initialState = state;
         currentState = state;
+        if (changed) {
+            invalidate(); // sadece gerçek bir değişiklik derlenmiş tabloyu ve sürümü geçersiz kılar
+        }
         return true;
     }
 
@@ -197,6 +551,7 @@ interface InterFSM {
             System.out.println("Warning: " + state + " was already a final state.");
             return false;
         }
+        invalidate();
         return true;
     }
      @Override
@@ -220,17 +575,42 @@ interface InterFSM {
              return false;
          }
 
-         Pair<String, String> key = new Pair<>(symbol, fromState);
-         if (transitions.containsKey(key)) {
-             String existingNextState = transitions.get(key);
-             if (!existingNextState.equals(toState)) {
-                 System.out.println("Warning: Transition <" + symbol + "," + fromState + "> overridden (" + existingNextState + " → " + toState + ")");
+         TransitionTable transitions = transitions();
+         String existingNextState = transitions.get(symbol, fromState);
+         if (existingNextState != null) {
+             if (nondeterministic) {
+                 // NFA modunda ek hedef olarak eklenir, eskisi silinmez
+                 if (!existingNextState.equals(toState)) {
+                     extraTargets.computeIfAbsent(new Pair<>(symbol, fromState), k -> new LinkedHashSet<>()).add(toState);
+                     invalidate();
+                 }
+                 return true;
+             }
+             if (existingNextState.equals(toState)) {
+                 return true; // aynı geçiş, makine değişmez
              }
+             System.out.println("Warning: Transition <" + symbol + "," + fromState + "> overridden (" + existingNextState + " → " + toState + ")");
          }
 
-         transitions.put(key, toState);
+         transitions.put(symbol, fromState, toState);
+         invalidate();
          return true;
      }
+     // Derlenmiş tabloyu döndürür, makine değiştiyse yeniden derler
+     CompiledFSM compile() {
+         if (compiled == null) {
+             compiled = new CompiledFSM(symbols, states, finalStates, initialState, transitions(), extraTargets, offHeap);
+         }
+         return compiled;
+     }
+
+     NFAEngine nfa() {
+         if (nfaEngine == null) {
+             nfaEngine = new NFAEngine(compile(), extraTargets, nfaCacheSize);
+         }
+         return nfaEngine;
+     }
+
      @Override
      public List<String> execute(String input) {
          List<String> stateSequence = new ArrayList<>();
@@ -240,27 +620,40 @@ interface InterFSM {
              return stateSequence;
          }
 
-         String current = initialState;
-         stateSequence.add(current);
+         if (nondeterministic) {
+             return executeNondeterministic(input, stateSequence);
+         }
+
+         CompiledFSM machine = compile();
+         int current = machine.getInitialState();
+         stateSequence.add(machine.getStateName(current));
 
-         for (char ch : input.toCharArray()) {
-             String symbol = String.valueOf(ch).toUpperCase();
-             if (!symbols.contains(symbol)) {
-                 System.out.println("Error: invalid input symbol '" + symbol + "'");
+         // ölü duruma girildiyse girdinin kalanı sonucu değiştiremez
+         for (int i = 0; i < input.length() && !machine.isDead(current); i++) {
+             char ch = input.charAt(i);
+             int symbol = machine.symbolId(ch);
+             if (symbol == CompiledFSM.NO_SYMBOL) {
+                 System.out.println("Error: invalid input symbol '" + String.valueOf(ch).toUpperCase() + "'");
                  return stateSequence;
              }
 
-             Pair<String, String> key = new Pair<>(symbol, current);
-             if (!transitions.containsKey(key)) {
+             int next = machine.next(current, symbol);
+             if (next == CompiledFSM.NO_TRANSITION) {
                  System.out.println("NO");
                  return stateSequence;
              }
 
-             current = transitions.get(key);
-             stateSequence.add(current);
+             current = next;
+             stateSequence.add(machine.getStateName(current));
+         }
+         // ölü durumda durulsa da girdinin kalanındaki geçersiz sembol yine raporlanır
+         int invalid = machine.firstInvalidSymbol(input, stateSequence.size() - 1);
+         if (invalid >= 0) {
+             System.out.println("Error: invalid input symbol '" + String.valueOf(input.charAt(invalid)).toUpperCase() + "'");
+             return stateSequence;
          }
 
-         if (finalStates.contains(current)) {
+         if (machine.isFinal(current)) {
              System.out.println("YES");
          } else {
              System.out.println("NO");
@@ -268,14 +661,47 @@ interface InterFSM {
 
          return stateSequence;
      }
+     // NFA izi: her adımdaki aktif durum kümesi
+     private List<String> executeNondeterministic(String input, List<String> stateSequence) {
+         NFAEngine engine = nfa();
+         CompiledFSM machine = compile();
+         long[] current = engine.startSet();
+         long[] next = new long[current.length];
+         stateSequence.add(engine.format(current));
+
+         for (int i = 0; i < input.length(); i++) {
+             char ch = input.charAt(i);
+             int symbol = machine.symbolId(ch);
+             if (symbol == CompiledFSM.NO_SYMBOL) {
+                 System.out.println("Error: invalid input symbol '" + String.valueOf(ch).toUpperCase() + "'");
+                 return stateSequence;
+             }
+             if (!engine.step(current, symbol, next)) {
+                 System.out.println("NO");
+                 return stateSequence;
+             }
+             long[] swap = current;
+             current = next;
+             next = swap;
+             stateSequence.add(engine.format(current));
+         }
+
+         System.out.println(engine.isAccepting(current) ? "YES" : "NO");
+         return stateSequence;
+     }
+
      @Override
      public void clear() {
          symbols.clear();
          states.clear();
          finalStates.clear();
-         transitions.clear();
+         transitions = new TransitionTable();
+         mappedSource = null;
+         extraTargets.clear();
+         nondeterministic = false;
          initialState = null;
          currentState = null;
+         invalidate();
      }
      @Override
      public boolean setCurrentState(String state) {
@@ -296,140 +722,1779 @@ interface InterFSM {
          return execute(input);
      }
 
+     // Makineyi eşdeğer en küçük DFA ile değiştirir, yeni durum sayısını döndürür.
+     // Ulaşılamayan ve hiçbir final duruma gidemeyen durumlar atılır.
+     @Override
+     public int minimize() {
+         if (nondeterministic) {
+             throw new IllegalStateException("MINIMIZE requires a deterministic machine");
+         }
+         if (initialState == null) {
+             return states.size();
+         }
+         CompiledFSM machine = compile();
+         int[] blockOf = new DFAMinimizer(machine).minimize();
+
+         // her bloğu orijinal sırada ilk görülen durum temsil eder
+         int stateCount = machine.getStateCount();
+         String[] representatives = new String[stateCount + 1]; // blok no -> temsilci durum
+         Set<String> newStates = new LinkedHashSet<>();
+         for (int q = 0; q < stateCount; q++) {
+             int block = blockOf[q];
+             if (block == DFAMinimizer.REMOVED || representatives[block] != null) continue;
+             String name = machine.getStateName(q);
+             representatives[block] = name;
+             newStates.add(name);
+         }
+
+         int initialBlock = blockOf[machine.getInitialState()];
+         String newInitial = initialBlock == DFAMinimizer.REMOVED ? null : representatives[initialBlock];
+         if (newInitial == null) {
+             // dil boş: sadece başlangıç durumu kalır
+             newInitial = initialState;
+             newStates.add(newInitial);
+         }
+
+         Set<String> newFinals = new HashSet<>();
+         TransitionTable newTransitions = new TransitionTable();
+         for (int q = 0; q < stateCount; q++) {
+             int block = blockOf[q];
+             if (block == DFAMinimizer.REMOVED || !representatives[block].equals(machine.getStateName(q))) continue;
+             String from = representatives[block];
+             if (machine.isFinal(q)) {
+                 newFinals.add(from);
+             }
+             for (int a = 0; a < machine.getClassCount(); a++) {
+                 int target = machine.next(q, a);
+                 if (target == CompiledFSM.NO_TRANSITION || blockOf[target] == DFAMinimizer.REMOVED) continue;
+                 for (String symbol : machine.getClassSymbols(a)) {
+                     newTransitions.put(symbol, from, representatives[blockOf[target]]);
+                 }
+             }
+         }
+
+         String newCurrent = newInitial;
+         int currentId = currentState == null ? CompiledFSM.NO_TRANSITION : machine.getStateId(currentState);
+         if (currentId != CompiledFSM.NO_TRANSITION && blockOf[currentId] != DFAMinimizer.REMOVED) {
+             newCurrent = representatives[blockOf[currentId]];
+         }
+
+         states = newStates;
+         finalStates = newFinals;
+         transitions = newTransitions;
+         initialState = newInitial;
+         currentState = newCurrent;
+         invalidate();
+         return states.size();
+     }
+
+     // Sadece YES/NO sonucu, iz listesi oluşturmaz
+     @Override
+     public boolean accepts(CharSequence input) {
+         if (initialState == null) return false;
+         return nondeterministic ? nfa().accepts(input) : compile().accepts(input);
+     }
+
+     // Ziyaret edilen durumların id'lerini stateIds'e yazar (id -> isim için compile().getStateName).
+     // Girdinin tamamı işlendiyse dönen değer input.length() + 1 olur; ölü duruma girilirse iz orada biter.
+     @Override
+     public int trace(CharSequence input, int[] stateIds) {
+         if (stateIds.length < input.length() + 1) {
+             throw new IllegalArgumentException("Trace buffer needs " + (input.length() + 1) + " slots");
+         }
+         if (nondeterministic) {
+             throw new IllegalStateException("trace requires a deterministic machine");
+         }
+         if (initialState == null) {
+             return 0;
+         }
+         return compile().trace(input, stateIds);
+     }
+
+     // Reddin kesinleştiği sembolün 1 tabanlı konumu (bkz. CompiledFSM.rejectionPoint); sadece DFA
+     int rejectionPoint(CharSequence input) {
+         if (nondeterministic) {
+             throw new IllegalStateException("rejectionPoint requires a deterministic machine");
+         }
+         if (initialState == null) {
+             return 0;
+         }
+         return compile().rejectionPoint(input);
+     }
+
+     // (blok)^n desenli girdinin son durumu, geçiş yoksa null; sadece DFA
+     String finalState(InputPattern pattern) {
+         if (nondeterministic) {
+             throw new IllegalStateException("finalState requires a deterministic machine");
+         }
+         if (initialState == null) {
+             return null;
+         }
+         CompiledFSM machine = compile();
+         int state = pattern.finalState(machine);
+         return state == CompiledFSM.NO_TRANSITION ? null : machine.getStateName(state);
+     }
+
+     // Girdileri derlenmiş anlık görüntü üzerinde paralel çalıştırır, sonuçlar girdi sırasındadır
+     @Override
+     public boolean[] executeBatch(List<? extends CharSequence> inputs) {
+         boolean[] verdicts = new boolean[inputs.size()];
+         if (initialState == null || inputs.isEmpty()) {
+             return verdicts;
+         }
+         Predicate<CharSequence> machine = nondeterministic ? nfa()::accepts : compile()::accepts;
+         CompiledFSM lockstep = !nondeterministic && compile().prefersLockstep() ? compile() : null;
+         BatchExecutor task = new BatchExecutor(machine, lockstep, inputs, verdicts, 0, inputs.size());
+         ForkJoinPool.commonPool().invoke(task);
+         return verdicts;
+     }
+
 
  }
 
-//Transition class
- class Transition {
-    private String currentState;
-    private char inputSymbol;
-    private String nextState;
+// Büyük makineler için geçiş deposu. Sembol ve durum isimleri int id'lere çevrilir,
+// <sembol,durum> -> durum long anahtarlı açık adresli bir tabloda tutulur; böylece
+// bir girdi Pair, map düğümü ve kutulanmış anahtarlar yerine bir long ve bir int tutar.
+final class TransitionTable {
+    private static final long EMPTY = -1L;
+    private static final int INITIAL_CAPACITY = 16;
 
-    public Transition(String currentState, char inputSymbol, String nextState) {
-        this.currentState = currentState.toUpperCase();
-        this.inputSymbol = inputSymbol;
-        this.nextState = nextState.toUpperCase();
+    interface Visitor {
+        void visit(int symbol, int from, int to);
     }
 
-    public String getCurrentState() {
-        return currentState;
+    private Map<String, Integer> symbolIds = new HashMap<>(); // null ise ilk isim aramasında kurulur
+    private final List<String> symbolNames = new ArrayList<>();
+    private Map<String, Integer> stateIds = new HashMap<>();
+    private final List<String> stateNames = new ArrayList<>();
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    TransitionTable() {
+        allocate(INITIAL_CAPACITY);
     }
 
-    public char getInputSymbol() {
-        return inputSymbol;
+    // İsimleri verilen sırada id'lere bağlar; aynı isim iki kez verilmemelidir.
+    // İsim -> id indeksi ancak isimle erişilince kurulur, böylece yükleme hızlı kalır.
+    TransitionTable(String[] symbols, String[] states) {
+        symbolNames.addAll(Arrays.asList(symbols));
+        stateNames.addAll(Arrays.asList(states));
+        symbolIds = null;
+        stateIds = null;
+        int capacity = INITIAL_CAPACITY;
+        while (capacity * 3 < states.length * 4) capacity <<= 1;
+        allocate(capacity);
     }
 
-    public String getNextState() {
-        return nextState;
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
     }
 
-    @Override
-    public String toString() {
-        return "(" + currentState + ", " + inputSymbol + ") → " + nextState;
+    private static long key(int symbol, int state) {
+        return ((long) symbol << 32) | (state & 0xFFFFFFFFL);
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (!(o instanceof Transition)) return false;
-        Transition t = (Transition) o;
-        return inputSymbol == t.inputSymbol &&
-               currentState.equalsIgnoreCase(t.currentState) &&
-               nextState.equalsIgnoreCase(t.nextState);
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
     }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(currentState.toLowerCase(), inputSymbol, nextState.toLowerCase());
+    private static Map<String, Integer> index(List<String> names) {
+        Map<String, Integer> ids = new HashMap<>(names.size() * 2);
+        for (int i = 0; i < names.size(); i++) {
+            ids.put(names.get(i), i);
+        }
+        return ids;
     }
-}
-class State {
-    private final String name;
 
-    public State(String name) {
-        this.name = name.toUpperCase(); // case-insensitive
+    private Map<String, Integer> symbolIndex() {
+        if (symbolIds == null) symbolIds = index(symbolNames);
+        return symbolIds;
     }
 
-    public String getName() {
-        return name;
+    private Map<String, Integer> stateIndex() {
+        if (stateIds == null) stateIds = index(stateNames);
+        return stateIds;
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (!(o instanceof State))
-            return false;
-        State state = (State) o;
-        return name.equalsIgnoreCase(state.name);
+    private static int intern(String name, Map<String, Integer> ids, List<String> names) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
     }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(name.toLowerCase());
+    // Hedef durumu döndürür, geçiş yoksa null
+    String get(String symbol, String state) {
+        Integer s = symbolIndex().get(symbol);
+        Integer q = stateIndex().get(state);
+        if (s == null || q == null) return null;
+        int to = find(key(s, q));
+        return to < 0 ? null : stateNames.get(to);
     }
 
-    @Override
-    public String toString() {
-        return name;
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+            if (keys[i] == EMPTY) return -1;
+        }
     }
-}
-//FSMCommandHandler class
-class FSMCommandHandler {
 
-    private InterFSM fsm;
+    // Geçişi ekler ya da günceller
+    void put(String symbol, String from, String to) {
+        int symbolId = intern(symbol, symbolIndex(), symbolNames);
+        int fromId = intern(from, stateIndex(), stateNames);
+        put(symbolId, fromId, intern(to, stateIndex(), stateNames));
+    }
 
-    public FSMCommandHandler(FSM fsm) {
-        this.fsm = fsm;
+    // Id'lerle ekleme, id'ler bu tablonun getSymbolName/getStateName sırasıdır
+    void put(int symbol, int from, int to) {
+        if (insert(key(symbol, from), to)) {
+            size++;
+            if (size * 4 > keys.length * 3) {
+                rehash(keys.length * 2);
+            }
+        }
     }
 
-    //setters and getters
-    public InterFSM getFSM() {
-        return fsm;
+    // Geçiş yoksa -1
+    int get(int symbol, int from) {
+        return find(key(symbol, from));
     }
 
-    public void setFSM(InterFSM fsm) {
-        this.fsm = fsm;
+    int getStateId(String state) {
+        Integer id = stateIndex().get(state);
+        return id == null ? -1 : id;
     }
 
-    public void handleSymbolsCommand(String[] tokens) throws InvalidSymbolException {
-        List<String> errorMessages = new ArrayList<>();
+    int getSymbolId(String symbol) {
+        Integer id = symbolIndex().get(symbol);
+        return id == null ? -1 : id;
+    }
 
-        for (String symbol : tokens) {
-            if (symbol.length() != 1) {
-                errorMessages.add(symbol + " is not allowed as a symbol, length must be 1.");
-                continue;
+    private boolean insert(long key, int target) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                values[i] = target;
+                return true;
             }
-
-            if (!symbol.matches("[a-zA-Z0-9]")) {
-                errorMessages.add(symbol + " is not allowed, not alphanumeric.");
-                continue;
+            if (keys[i] == key) {
+                values[i] = target;
+                return false;
             }
-
-            fsm.addSymbol(symbol.toUpperCase());
         }
+    }
 
-        if (!errorMessages.isEmpty()) {
-            throw new InvalidSymbolException(String.join(" ", errorMessages));
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) insert(oldKeys[i], oldValues[i]);
         }
     }
 
-
-    public void handleStatesCommand(String[] tokens) throws InvalidStateException {
-        for (String state : tokens) {
-            if (!state.matches("[a-zA-Z0-9]+")) {
-                throw new InvalidStateException("Invalid state: " + state);
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            long key = keys[i];
+            if (key != EMPTY) {
+                visitor.visit((int) (key >>> 32), (int) key, values[i]);
             }
-            fsm.addState(state.toUpperCase());
         }
     }
 
-    public void handleInitialStateCommand(String state) throws InvalidStateException {
-        if (!fsm.setInitialState(state)) {
-            throw new InvalidStateException("Initial state must be a declared state: " + state);
-        }
+    void clear() {
+        symbolIds = new HashMap<>();
+        symbolNames.clear();
+        stateIds = new HashMap<>();
+        stateNames.clear();
+        allocate(INITIAL_CAPACITY);
+        size = 0;
     }
 
-    public void handleFinalStatesCommand(String[] states) throws InvalidStateException {
+    int size() {
+        return size;
+    }
+
+    String getSymbolName(int symbol) {
+        return symbolNames.get(symbol);
+    }
+
+    String getStateName(int state) {
+        return stateNames.get(state);
+    }
+
+    int getSymbolCount() {
+        return symbolNames.size();
+    }
+
+    int getStateCount() {
+        return stateNames.size();
+    }
+}
+
+// Bir FSM'in değişmez anlık görüntüsü; sembol sınıfları ve durumlar int id'lerle tutulur.
+// Geçiş sütunları her durumda aynı olan semboller tek bir sınıfı paylaşır, geçişler
+// durum * classCount + sınıf ile indekslenen düz bir tabloda durur.
+// Tablo ya heap'te bir int[] ya da heap dışında bir MemorySegment'tir; segment otomatik
+// bir Arena'dan ayrılır ya da bir .fs dosyasından salt okunur eşlenir.
+final class CompiledFSM {
+    static final int NO_TRANSITION = -1;
+    static final int NO_SYMBOL = -1;
+    private static final int CHARS = 1 << 16;
+    private static final char NOT_FOLDED = '\uFFFF';
+    private static final char[] UPPER = buildCaseFolding();
+
+    static final ValueLayout.OfInt NATIVE_INT = ValueLayout.JAVA_INT;
+    static final ValueLayout.OfInt FILE_INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private final String[] stateNames;
+    private volatile Map<String, Integer> stateIds; // ilk isim aramasında kurulur
+    private final String[][] classSymbols; // sınıf -> o sınıftaki semboller
+    private final byte[] classOf; // her karakter için sınıf, geçersizse -1 (en fazla 36 alfanümerik sembol)
+    private final int classCount;
+    private final int[] table; // heap modunda, aksi halde null
+    private final MemorySegment segment; // off-heap ya da eşlenmiş modda
+    private final ValueLayout.OfInt layout;
+    private final boolean[] finals;
+    private final int initialState;
+    private volatile boolean[] dead; // ilk yürütmede kurulur, ölü durum yoksa NO_DEAD_STATES
+    private static final boolean[] NO_DEAD_STATES = new boolean[0];
+    static final int ACCEPTED = -1;
+
+    CompiledFSM(Set<String> symbols, Set<String> states, Set<String> finalStates, String initialState,
+                TransitionTable transitions, Map<Pair<String, String>, Set<String>> extraTargets, boolean offHeap) {
+        stateNames = states.toArray(new String[0]);
+        Map<String, Integer> ids = stateIndex();
+        int stateCount = stateNames.length;
+
+        // önce her sembol için ayrı bir sütun
+        String[] symbolNames = symbols.toArray(new String[0]);
+        Map<String, Integer> symbolIndex = new HashMap<>();
+        for (int i = 0; i < symbolNames.length; i++) {
+            symbolIndex.put(symbolNames[i], i);
+        }
+        int[][] columns = new int[symbolNames.length][stateCount];
+        for (int[] column : columns) {
+            Arrays.fill(column, NO_TRANSITION);
+        }
+        // tablonun kendi id'leri bu anlık görüntünün id'lerine bir kez çevrilir
+        int[] symbolMap = new int[transitions.getSymbolCount()];
+        for (int i = 0; i < symbolMap.length; i++) {
+            symbolMap[i] = symbolIndex.getOrDefault(transitions.getSymbolName(i), NO_SYMBOL);
+        }
+        int[] stateMap = new int[transitions.getStateCount()];
+        for (int i = 0; i < stateMap.length; i++) {
+            stateMap[i] = ids.getOrDefault(transitions.getStateName(i), NO_TRANSITION);
+        }
+        transitions.forEach((symbol, from, to) -> {
+            int s = symbolMap[symbol];
+            int f = stateMap[from];
+            int t = stateMap[to];
+            if (s != NO_SYMBOL && f != NO_TRANSITION && t != NO_TRANSITION) {
+                columns[s][f] = t;
+            }
+        });
+
+        // NFA ek hedefi olan semboller birleştirilmez
+        Set<String> ownClass = new HashSet<>();
+        for (Pair<String, String> key : extraTargets.keySet()) {
+            ownClass.add(key.getFirst());
+        }
+
+        // aynı sütuna sahip semboller tek sınıf olur
+        Map<Integer, List<Integer>> classesByHash = new HashMap<>();
+        List<List<String>> members = new ArrayList<>();
+        List<int[]> classColumns = new ArrayList<>();
+        int[] symbolClass = new int[symbolNames.length];
+        for (int i = 0; i < symbolNames.length; i++) {
+            int cls = -1;
+            int hash = Arrays.hashCode(columns[i]);
+            if (!ownClass.contains(symbolNames[i])) {
+                for (int candidate : classesByHash.getOrDefault(hash, Collections.emptyList())) {
+                    if (Arrays.equals(classColumns.get(candidate), columns[i])) {
+                        cls = candidate;
+                        break;
+                    }
+                }
+            }
+            if (cls < 0) {
+                cls = members.size();
+                members.add(new ArrayList<>());
+                classColumns.add(columns[i]);
+                if (!ownClass.contains(symbolNames[i])) {
+                    classesByHash.computeIfAbsent(hash, h -> new ArrayList<>()).add(cls);
+                }
+            }
+            members.get(cls).add(symbolNames[i]);
+            symbolClass[i] = cls;
+        }
+
+        classCount = members.size();
+        classSymbols = new String[classCount][];
+        for (int c = 0; c < classCount; c++) {
+            classSymbols[c] = members.get(c).toArray(new String[0]);
+        }
+        if (offHeap) {
+            // sütunlar geçici olarak heap'te, kalıcı tablo GC'nin dışında
+            table = null;
+            layout = NATIVE_INT;
+            segment = Arena.ofAuto().allocate((long) stateCount * classCount * Integer.BYTES, Integer.BYTES);
+            for (int c = 0; c < classCount; c++) {
+                int[] column = classColumns.get(c);
+                for (int q = 0; q < stateCount; q++) {
+                    segment.setAtIndex(layout, (long) q * classCount + c, column[q]);
+                }
+            }
+        } else {
+            segment = null;
+            layout = null;
+            table = new int[Math.multiplyExact(stateCount, classCount)];
+            for (int c = 0; c < classCount; c++) {
+                int[] column = classColumns.get(c);
+                for (int q = 0; q < stateCount; q++) {
+                    table[q * classCount + c] = column[q];
+                }
+            }
+        }
+        classOf = buildClassTable(symbolNames, symbolClass);
+
+        finals = new boolean[stateCount];
+        for (String state : finalStates) {
+            Integer id = ids.get(state);
+            if (id != null) finals[id] = true;
+        }
+        Integer initial = initialState == null ? null : ids.get(initialState);
+        this.initialState = initial == null ? NO_TRANSITION : initial;
+    }
+
+    // .fs dosyasından eşlenmiş tablo: her sembol kendi sınıfı, hücreler dosyanın big-endian int'leri
+    CompiledFSM(String[] symbolNames, String[] stateNames, boolean[] finals, int initialState, MemorySegment table) {
+        this.stateNames = stateNames;
+        this.finals = finals;
+        this.initialState = initialState;
+        this.classCount = symbolNames.length;
+        this.table = null;
+        this.segment = table;
+        this.layout = FILE_INT;
+        classSymbols = new String[classCount][];
+        int[] symbolClass = new int[classCount];
+        for (int i = 0; i < classCount; i++) {
+            classSymbols[i] = new String[] { symbolNames[i] };
+            symbolClass[i] = i;
+        }
+        classOf = buildClassTable(symbolNames, symbolClass);
+    }
+
+    // karakter -> sınıf tablosu, büyük/küçük harf dönüşümü burada yapılır
+    private static byte[] buildClassTable(String[] symbolNames, int[] symbolClass) {
+        short[] classOfUpper = new short[CHARS];
+        Arrays.fill(classOfUpper, (short) NO_SYMBOL);
+        for (int i = 0; i < symbolNames.length; i++) {
+            if (symbolNames[i].length() != 1) continue; // execute tek karakterlik sembolleri okur
+            classOfUpper[symbolNames[i].charAt(0)] = (short) symbolClass[i];
+        }
+        byte[] classOf = new byte[CHARS];
+        for (int ch = 0; ch < CHARS; ch++) {
+            char upper = UPPER[ch];
+            classOf[ch] = upper == NOT_FOLDED ? NO_SYMBOL : (byte) classOfUpper[upper];
+        }
+        return classOf;
+    }
+
+    private Map<String, Integer> stateIndex() {
+        Map<String, Integer> ids = stateIds;
+        if (ids == null) {
+            ids = new HashMap<>(stateNames.length * 2);
+            for (int i = 0; i < stateNames.length; i++) {
+                ids.put(stateNames[i], i);
+            }
+            stateIds = ids;
+        }
+        return ids;
+    }
+
+    // Eşlenmiş makine değiştirilecekse geçişleri düzenlenebilir tabloya aktarır
+    TransitionTable toTransitionTable() {
+        List<String> symbols = new ArrayList<>();
+        List<Integer> symbolClass = new ArrayList<>();
+        for (int c = 0; c < classCount; c++) {
+            for (String symbol : classSymbols[c]) {
+                symbols.add(symbol);
+                symbolClass.add(c);
+            }
+        }
+        TransitionTable transitions = new TransitionTable(symbols.toArray(new String[0]), stateNames);
+        for (int q = 0; q < stateNames.length; q++) {
+            for (int i = 0; i < symbols.size(); i++) {
+                int target = next(q, symbolClass.get(i));
+                if (target != NO_TRANSITION) transitions.put(i, q, target);
+            }
+        }
+        return transitions;
+    }
+
+    // Karakterin sembol olarak yazıldığı büyük harf hali (addSymbol ile aynı dönüşüm)
+    private static char[] buildCaseFolding() {
+        char[] upper = new char[CHARS];
+        for (int ch = 0; ch < CHARS; ch++) {
+            String folded = String.valueOf((char) ch).toUpperCase();
+            upper[ch] = folded.length() == 1 ? folded.charAt(0) : NOT_FOLDED;
+        }
+        upper[NOT_FOLDED] = NOT_FOLDED;
+        return upper;
+    }
+
+    // Girdi karakterini sembol sınıfına çevirir, geçersizse NO_SYMBOL
+    int symbolId(char ch) {
+        return classOf[ch];
+    }
+
+    int next(int state, int symbol) {
+        if (table != null) {
+            return table[state * classCount + symbol];
+        }
+        return segment.getAtIndex(layout, (long) state * classCount + symbol);
+    }
+
+    // Ölü (tuzak) durumlar: hiçbir final duruma ulaşamayanlar, finallerden ters yönde ulaşılabilirlikle.
+    // Ölü durum yoksa ya da tablo heap'te değilse null döner; yürütme döngüleri o zaman ek kontrol yapmaz
+    boolean[] deadStates() {
+        boolean[] result = dead;
+        if (result == null) {
+            result = computeDeadStates();
+            dead = result;
+        }
+        return result.length == 0 ? null : result;
+    }
+
+    boolean isDead(int state) {
+        boolean[] result = deadStates();
+        return state == NO_TRANSITION || result != null && result[state];
+    }
+
+    private boolean[] computeDeadStates() {
+        if (table == null) {
+            return NO_DEAD_STATES; // eşlenmiş/heap dışı tablo: tarama tüm dosyayı okur ve heap'e kopyalar
+        }
+        int stateCount = stateNames.length;
+        // ters kenarlar CSR olarak: hedef -> kaynaklar
+        int[] offsets = new int[stateCount + 1];
+        for (int q = 0; q < stateCount; q++) {
+            for (int c = 0; c < classCount; c++) {
+                int target = next(q, c);
+                if (target != NO_TRANSITION) offsets[target + 1]++;
+            }
+        }
+        for (int q = 0; q < stateCount; q++) {
+            offsets[q + 1] += offsets[q];
+        }
+        int[] sources = new int[offsets[stateCount]];
+        int[] fill = Arrays.copyOf(offsets, stateCount);
+        for (int q = 0; q < stateCount; q++) {
+            for (int c = 0; c < classCount; c++) {
+                int target = next(q, c);
+                if (target != NO_TRANSITION) sources[fill[target]++] = q;
+            }
+        }
+
+        boolean[] live = new boolean[stateCount];
+        int[] queue = new int[stateCount];
+        int head = 0;
+        int tail = 0;
+        for (int q = 0; q < stateCount; q++) {
+            if (finals[q]) {
+                live[q] = true;
+                queue[tail++] = q;
+            }
+        }
+        while (head < tail) {
+            int q = queue[head++];
+            for (int e = offsets[q]; e < offsets[q + 1]; e++) {
+                int source = sources[e];
+                if (!live[source]) {
+                    live[source] = true;
+                    queue[tail++] = source;
+                }
+            }
+        }
+        if (tail == stateCount) {
+            return NO_DEAD_STATES;
+        }
+        boolean[] deadStates = new boolean[stateCount];
+        for (int q = 0; q < stateCount; q++) {
+            deadStates[q] = !live[q];
+        }
+        return deadStates;
+    }
+
+    // Reddin kesinleştiği sembolün 1 tabanlı konumu: geçersiz sembol, eksik geçiş ya da ölü duruma
+    // girilen yer. Başlangıç durumu ölü ise 0, girdi final olmayan durumda biterse input.length(),
+    // kabul edilirse ACCEPTED
+    int rejectionPoint(CharSequence input) {
+        boolean[] dead = deadStates();
+        int current = initialState;
+        if (current == NO_TRANSITION || dead != null && dead[current]) return 0;
+        for (int i = 0; i < input.length(); i++) {
+            int symbol = symbolId(input.charAt(i));
+            if (symbol == NO_SYMBOL) return i + 1;
+            current = next(current, symbol);
+            if (current == NO_TRANSITION || dead != null && dead[current]) return i + 1;
+        }
+        return finals[current] ? ACCEPTED : input.length();
+    }
+
+    // from konumundan itibaren ilk geçersiz sembolün konumu, yoksa -1
+    int firstInvalidSymbol(CharSequence input, int from) {
+        for (int i = from; i < input.length(); i++) {
+            if (symbolId(input.charAt(i)) == NO_SYMBOL) return i;
+        }
+        return -1;
+    }
+
+    // Sadece sonucu hesaplar, iz tutmaz ve ekrana yazmaz
+    boolean accepts(CharSequence input) {
+        if (deadStates() != null) {
+            return rejectionPoint(input) == ACCEPTED; // ölü duruma girilince girdinin kalanı okunmaz
+        }
+        if (table == null) {
+            return acceptsOffHeap(input);
+        }
+        int current = initialState;
+        if (current == NO_TRANSITION) return false;
+        for (int i = 0; i < input.length(); i++) {
+            int symbol = symbolId(input.charAt(i));
+            if (symbol == NO_SYMBOL) return false;
+            current = table[current * classCount + symbol];
+            if (current == NO_TRANSITION) return false;
+        }
+        return finals[current];
+    }
+
+    // Blok için durum -> durum eşlemesi: her durumdan blok yürütülür, ölü kollar NO_TRANSITION
+    int[] transitionMap(CharSequence block) {
+        int[] map = new int[getStateCount()];
+        for (int q = 0; q < map.length; q++) {
+            int current = q;
+            for (int i = 0; i < block.length() && current != NO_TRANSITION; i++) {
+                int symbol = symbolId(block.charAt(i));
+                current = symbol == NO_SYMBOL ? NO_TRANSITION : next(current, symbol);
+            }
+            map[q] = current;
+        }
+        return map;
+    }
+
+    // önce first sonra then; NO_TRANSITION yutucudur
+    static int[] compose(int[] first, int[] then) {
+        int[] result = new int[first.length];
+        for (int q = 0; q < first.length; q++) {
+            result[q] = first[q] == NO_TRANSITION ? NO_TRANSITION : then[first[q]];
+        }
+        return result;
+    }
+
+    // map^count, kare alarak: O(|Q| log count)
+    static int[] power(int[] map, long count) {
+        int[] result = new int[map.length];
+        for (int q = 0; q < result.length; q++) result[q] = q;
+        int[] base = map;
+        while (count > 0) {
+            if ((count & 1) != 0) result = compose(result, base);
+            count >>>= 1;
+            if (count > 0) base = compose(base, base);
+        }
+        return result;
+    }
+
+    // Girdileri LANES'li gruplar halinde birlikte ilerletir: her adımda gruptaki girdilerin tablo
+    // okumaları birbirinden bağımsızdır, işlemci bunları aynı anda bekler (bellek seviyesi paralellik).
+    // Grubun en kısa girdisi kadar birlikte gidilir, kalanlar tek tek bitirilir.
+    // Geçersiz sembol ya da eksik geçişe düşen girdi NO_TRANSITION'da kalır (maskelenir).
+    static final int LANES = 8;
+    // Bundan küçük tablolar önbellekte kalır; orada gecikme darboğaz değildir ve tek tek yürütme daha hızlıdır
+    private static final long LOCKSTEP_MIN_BYTES = 1L << 20;
+
+    boolean prefersLockstep() {
+        return table != null && (long) table.length * Integer.BYTES >= LOCKSTEP_MIN_BYTES;
+    }
+
+    void acceptsLockstep(List<? extends CharSequence> inputs, int from, int to, boolean[] verdicts) {
+        if (table == null || initialState == NO_TRANSITION) {
+            for (int i = from; i < to; i++) verdicts[i] = accepts(inputs.get(i));
+            return;
+        }
+        boolean[] dead = deadStates();
+        int[] state = new int[LANES];
+        CharSequence[] lane = new CharSequence[LANES];
+        int i = from;
+        for (; i + LANES <= to; i += LANES) {
+            int common = Integer.MAX_VALUE;
+            for (int l = 0; l < LANES; l++) {
+                lane[l] = inputs.get(i + l);
+                common = Math.min(common, lane[l].length());
+                state[l] = initialState;
+            }
+            int p = 0;
+            for (; p < common; p++) {
+                for (int l = 0; l < LANES; l++) {
+                    int current = state[l];
+                    int symbol = classOf[lane[l].charAt(p)];
+                    state[l] = (current | symbol) < 0 ? NO_TRANSITION : table[current * classCount + symbol];
+                }
+                // ölü kontrolü her adımda değil, grubun tamamı reddedildi mi diye arada bir
+                if ((p & 63) == 63 && dead != null && allDead(state, dead)) break;
+            }
+            for (int l = 0; l < LANES; l++) {
+                verdicts[i + l] = p == common && finish(state[l], lane[l], common, dead);
+            }
+        }
+        for (; i < to; i++) {
+            verdicts[i] = accepts(inputs.get(i));
+        }
+    }
+
+    private static boolean allDead(int[] state, boolean[] dead) {
+        for (int current : state) {
+            if (current != NO_TRANSITION && !dead[current]) return false;
+        }
+        return true;
+    }
+
+    private boolean finish(int current, CharSequence input, int position, boolean[] dead) {
+        for (int p = position; p < input.length() && current != NO_TRANSITION; p++) {
+            if (dead != null && dead[current]) return false;
+            int symbol = classOf[input.charAt(p)];
+            current = symbol == NO_SYMBOL ? NO_TRANSITION : table[current * classCount + symbol];
+        }
+        return current != NO_TRANSITION && finals[current];
+    }
+
+    private boolean acceptsOffHeap(CharSequence input) {
+        int current = initialState;
+        if (current == NO_TRANSITION) return false;
+        for (int i = 0; i < input.length(); i++) {
+            int symbol = symbolId(input.charAt(i));
+            if (symbol == NO_SYMBOL) return false;
+            current = segment.getAtIndex(layout, (long) current * classCount + symbol);
+            if (current == NO_TRANSITION) return false;
+        }
+        return finals[current];
+    }
+
+    // accepts ile aynı yürütme, ziyaret edilen durum id'lerini stateIds'e yazar; ölü duruma girince durur
+    int trace(CharSequence input, int[] stateIds) {
+        boolean[] dead = deadStates();
+        int current = initialState;
+        if (current == NO_TRANSITION) return 0;
+        int count = 0;
+        stateIds[count++] = current;
+        for (int i = 0; i < input.length(); i++) {
+            if (dead != null && dead[current]) return count;
+            int symbol = symbolId(input.charAt(i));
+            if (symbol == NO_SYMBOL) return count;
+            current = next(current, symbol);
+            if (current == NO_TRANSITION) return count;
+            stateIds[count++] = current;
+        }
+        return count;
+    }
+
+    int getInitialState() {
+        return initialState;
+    }
+
+    int getStateId(String state) {
+        Integer id = stateIndex().get(state);
+        return id == null ? NO_TRANSITION : id;
+    }
+
+    String getStateName(int state) {
+        return stateNames[state];
+    }
+
+    String[] getClassSymbols(int symbolClass) {
+        return classSymbols[symbolClass].clone();
+    }
+
+    boolean isFinal(int state) {
+        return finals[state];
+    }
+
+    int getStateCount() {
+        return stateNames.length;
+    }
+
+    int getClassCount() {
+        return classCount;
+    }
+
+    boolean isOffHeap() {
+        return table == null;
+    }
+}
+
+// Derlenmiş makine üzerinde Hopcroft bölümleme iyileştirmesi.
+// Eksik geçişler örtük bir batak (sink) duruma gider; bu yüzden batakla eşdeğer
+// durumlar (ölü durumlar) ulaşılamayanlarla birlikte REMOVED olarak bildirilir.
+class DFAMinimizer {
+    static final int REMOVED = -1;
+
+    private final CompiledFSM machine;
+    private final int symbolCount;
+
+    DFAMinimizer(CompiledFSM machine) {
+        this.machine = machine;
+        this.symbolCount = machine.getClassCount();
+    }
+
+    // Her durum için blok numarası, ya da REMOVED
+    int[] minimize() {
+        int original = machine.getStateCount();
+
+        // 1. başlangıçtan ulaşılabilen durumlar, yeni id'ler 0..n-1, n = sink
+        int[] localId = new int[original];
+        Arrays.fill(localId, REMOVED);
+        int[] reachable = new int[original];
+        int n = 0;
+        localId[machine.getInitialState()] = n;
+        reachable[n++] = machine.getInitialState();
+        for (int head = 0; head < n; head++) {
+            int q = reachable[head];
+            for (int a = 0; a < symbolCount; a++) {
+                int t = machine.next(q, a);
+                if (t != CompiledFSM.NO_TRANSITION && localId[t] == REMOVED) {
+                    localId[t] = n;
+                    reachable[n++] = t;
+                }
+            }
+        }
+        int sink = n;
+        int total = n + 1;
+
+        // 2. ters geçişler, sembol başına CSR
+        int[] invStart = new int[symbolCount * (total + 1)];
+        int[] invList = new int[symbolCount * total];
+        for (int a = 0; a < symbolCount; a++) {
+            int base = a * (total + 1);
+            for (int q = 0; q < total; q++) {
+                invStart[base + target(reachable, localId, q, a, sink) + 1]++;
+            }
+            for (int q = 0; q < total; q++) {
+                invStart[base + q + 1] += invStart[base + q];
+            }
+            int[] fill = Arrays.copyOfRange(invStart, base, base + total);
+            for (int q = 0; q < total; q++) {
+                int t = target(reachable, localId, q, a, sink);
+                invList[a * total + fill[t]++] = q;
+            }
+        }
+
+        // 3. başlangıç bölümlemesi: final / final olmayan (sink final değil)
+        int[] elems = new int[total];
+        int[] loc = new int[total];
+        int[] blockOf = new int[total];
+        int[] first = new int[total];
+        int[] end = new int[total];
+        int[] marked = new int[total];
+        int finals = 0;
+        for (int q = 0; q < n; q++) {
+            if (machine.isFinal(reachable[q])) finals++;
+        }
+        int nextFinal = 0;
+        int nextOther = finals;
+        for (int q = 0; q < total; q++) {
+            boolean isFinal = q < n && machine.isFinal(reachable[q]);
+            int pos = isFinal ? nextFinal++ : nextOther++;
+            elems[pos] = q;
+            loc[q] = pos;
+        }
+        int blocks = 0;
+        int[] worklist = new int[total];
+        boolean[] inWork = new boolean[total];
+        int workSize = 0;
+        if (finals > 0) {
+            first[blocks] = 0;
+            end[blocks] = finals;
+            blocks++;
+        }
+        first[blocks] = finals;
+        end[blocks] = total;
+        blocks++;
+        for (int b = 0; b < blocks; b++) {
+            for (int i = first[b]; i < end[b]; i++) blockOf[elems[i]] = b;
+            worklist[workSize++] = b;
+            inWork[b] = true;
+        }
+
+        // 4. iyileştirme
+        int[] splitter = new int[total];
+        int[] touched = new int[total];
+        while (workSize > 0) {
+            int s = worklist[--workSize];
+            inWork[s] = false;
+            int splitterSize = end[s] - first[s];
+            System.arraycopy(elems, first[s], splitter, 0, splitterSize);
+
+            for (int a = 0; a < symbolCount; a++) {
+                int base = a * (total + 1);
+                int touchedCount = 0;
+                for (int i = 0; i < splitterSize; i++) {
+                    int q = splitter[i];
+                    for (int j = invStart[base + q]; j < invStart[base + q + 1]; j++) {
+                        int p = invList[a * total + j];
+                        int b = blockOf[p];
+                        int boundary = first[b] + marked[b];
+                        if (loc[p] < boundary) continue; // zaten işaretli
+                        int other = elems[boundary];
+                        elems[boundary] = p;
+                        elems[loc[p]] = other;
+                        loc[other] = loc[p];
+                        loc[p] = boundary;
+                        if (marked[b]++ == 0) touched[touchedCount++] = b;
+                    }
+                }
+
+                for (int i = 0; i < touchedCount; i++) {
+                    int b = touched[i];
+                    int m = marked[b];
+                    marked[b] = 0;
+                    if (m == end[b] - first[b]) continue;
+
+                    int created = blocks++;
+                    first[created] = first[b];
+                    end[created] = first[b] + m;
+                    first[b] = end[created];
+                    for (int k = first[created]; k < end[created]; k++) blockOf[elems[k]] = created;
+
+                    if (inWork[b]) {
+                        worklist[workSize++] = created;
+                        inWork[created] = true;
+                    } else {
+                        int smaller = (end[created] - first[created]) <= (end[b] - first[b]) ? created : b;
+                        worklist[workSize++] = smaller;
+                        inWork[smaller] = true;
+                    }
+                }
+            }
+        }
+
+        int[] result = new int[original];
+        Arrays.fill(result, REMOVED);
+        int sinkBlock = blockOf[sink];
+        for (int q = 0; q < n; q++) {
+            if (blockOf[q] != sinkBlock) result[reachable[q]] = blockOf[q];
+        }
+        return result;
+    }
+
+    private int target(int[] reachable, int[] localId, int q, int a, int sink) {
+        if (q == sink) return sink;
+        int t = machine.next(reachable[q], a);
+        return t == CompiledFSM.NO_TRANSITION ? sink : localId[t];
+    }
+}
+
+// Deterministik olmayan makinenin bit kümesiyle simülasyonu. Aktif durum kümesi bir long[]'dur,
+// determinize edilen kümeler thread başına sınırlı bir LRU'da tembel olarak saklanır; böylece
+// tekrarlanan yürütmeler alt küme inşasının tamamı kurulmadan DFA hızına yaklaşır.
+final class NFAEngine {
+    static final int DEFAULT_CACHE_SIZE = 10_000;
+
+    private final CompiledFSM machine;
+    private final int classCount;
+    private final int words;
+    private final int[] targetStart; // (durum * classCount + sembol) -> targets aralığı
+    private final int[] targets;
+    private final long[] finalBits;
+    private final long[] startSet;
+    private final int cacheSize;
+    private final ThreadLocal<LazyDFA> caches = ThreadLocal.withInitial(LazyDFA::new);
+
+    NFAEngine(CompiledFSM machine, Map<Pair<String, String>, Set<String>> extraTargets, int cacheSize) {
+        this.machine = machine;
+        this.classCount = machine.getClassCount();
+        this.cacheSize = cacheSize;
+        int stateCount = machine.getStateCount();
+        words = Math.max(1, (stateCount + 63) >>> 6);
+
+        // Ek hedefler (hücre, hedef) çiftleri olarak düz dizilerde; hücre başına liste kurulmaz
+        int extraCount = 0;
+        for (Set<String> targetNames : extraTargets.values()) extraCount += targetNames.size();
+        int[] extraCell = new int[extraCount];
+        int[] extraTarget = new int[extraCount];
+        int extras = 0;
+        for (Map.Entry<Pair<String, String>, Set<String>> entry : extraTargets.entrySet()) {
+            String symbolName = entry.getKey().getFirst();
+            int symbol = symbolName.length() == 1 ? machine.symbolId(symbolName.charAt(0)) : CompiledFSM.NO_SYMBOL;
+            int from = machine.getStateId(entry.getKey().getSecond());
+            if (symbol == CompiledFSM.NO_SYMBOL || from == CompiledFSM.NO_TRANSITION) continue;
+            for (String to : entry.getValue()) {
+                int id = machine.getStateId(to);
+                if (id == CompiledFSM.NO_TRANSITION) continue;
+                extraCell[extras] = from * classCount + symbol;
+                extraTarget[extras] = id;
+                extras++;
+            }
+        }
+
+        // CSR: önce hücre başına hedef sayısı, önek toplamıyla başlangıçlar, sonra doldurma
+        int cells = Math.multiplyExact(stateCount, classCount);
+        targetStart = new int[cells + 1];
+        for (int cell = 0; cell < cells; cell++) {
+            if (machine.next(cell / classCount, cell % classCount) != CompiledFSM.NO_TRANSITION) targetStart[cell + 1]++;
+        }
+        for (int i = 0; i < extras; i++) targetStart[extraCell[i] + 1]++;
+        for (int cell = 0; cell < cells; cell++) targetStart[cell + 1] += targetStart[cell];
+
+        targets = new int[targetStart[cells]];
+        int[] fill = Arrays.copyOf(targetStart, cells); // hücrenin sıradaki boş konumu
+        for (int cell = 0; cell < cells; cell++) {
+            int primary = machine.next(cell / classCount, cell % classCount);
+            if (primary != CompiledFSM.NO_TRANSITION) targets[fill[cell]++] = primary;
+        }
+        for (int i = 0; i < extras; i++) targets[fill[extraCell[i]]++] = extraTarget[i];
+
+        finalBits = new long[words];
+        for (int q = 0; q < stateCount; q++) {
+            if (machine.isFinal(q)) finalBits[q >>> 6] |= 1L << q;
+        }
+        startSet = new long[words];
+        int initial = machine.getInitialState();
+        if (initial != CompiledFSM.NO_TRANSITION) startSet[initial >>> 6] |= 1L << initial;
+    }
+
+    long[] startSet() {
+        return startSet.clone();
+    }
+
+    // current kümesinden symbol ile geçilen kümeyi out'a yazar, küme boşsa false
+    boolean step(long[] current, int symbol, long[] out) {
+        Arrays.fill(out, 0L);
+        boolean any = false;
+        for (int w = 0; w < words; w++) {
+            long bits = current[w];
+            while (bits != 0) {
+                int q = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int cell = q * classCount + symbol;
+                for (int j = targetStart[cell]; j < targetStart[cell + 1]; j++) {
+                    int t = targets[j];
+                    out[t >>> 6] |= 1L << t;
+                    any = true;
+                }
+            }
+        }
+        return any;
+    }
+
+    boolean isAccepting(long[] set) {
+        for (int w = 0; w < words; w++) {
+            if ((set[w] & finalBits[w]) != 0) return true;
+        }
+        return false;
+    }
+
+    String format(long[] set) {
+        StringJoiner joiner = new StringJoiner(",", "{", "}");
+        for (int w = 0; w < words; w++) {
+            long bits = set[w];
+            while (bits != 0) {
+                joiner.add(machine.getStateName((w << 6) + Long.numberOfTrailingZeros(bits)));
+                bits &= bits - 1;
+            }
+        }
+        return joiner.toString();
+    }
+
+    boolean accepts(CharSequence input) {
+        return caches.get().accepts(input);
+    }
+
+    // Bir determinize edilmiş durum: aktif küme ve sembol başına önbellekli geçişler
+    private static final class DState {
+        final long[] set;
+        final int hash;
+        final boolean accepting;
+        DState[] next; // çıkarılınca null
+        boolean used;  // saat biti: son taramadan beri satırdan ya da aramadan erişildi
+
+        DState(long[] set, boolean accepting, int classCount) {
+            this.set = set;
+            this.hash = Arrays.hashCode(set);
+            this.accepting = accepting;
+            this.next = new DState[classCount];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof DState && Arrays.equals(set, ((DState) o).set);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // Thread başına sınırlı önbellek, ikinci şans (saat) ile: satırdan gelen isabetler sadece used bitini
+    // kurar, dolunca used olmayan en eski durumlar toplu çıkarılır. Çıkarılanların geçiş dizisi bırakılır
+    // ve kalan satırlardaki onlara işaret eden girdiler silinir, böylece bellek cacheSize ile sınırlı kalır.
+    private final class LazyDFA {
+        private final Map<DState, DState> states = new LinkedHashMap<>(16, 0.75f, true);
+        private final DState dead = new DState(new long[0], false, 0);
+        private final long[] scratch = new long[words];
+
+        boolean accepts(CharSequence input) {
+            DState current = intern(startSet);
+            for (int i = 0; i < input.length(); i++) {
+                int symbol = machine.symbolId(input.charAt(i));
+                if (symbol == CompiledFSM.NO_SYMBOL) return false;
+
+                DState[] row = current.next;
+                DState next = row == null ? null : row[symbol];
+                if (next == dead) return false;
+                if (next != null) next.used = true;
+                if (next == null || next.next == null) {
+                    if (!step(current.set, symbol, scratch)) {
+                        if (row != null) row[symbol] = dead;
+                        return false;
+                    }
+                    next = intern(scratch);
+                    if (row != null) row[symbol] = next;
+                }
+                current = next;
+            }
+            return current.accepting;
+        }
+
+        private DState intern(long[] set) {
+            DState existing = states.get(new DState(set, false, 0));
+            if (existing != null) return existing;
+            long[] copy = set.clone();
+            DState created = new DState(copy, isAccepting(copy), classCount);
+            created.used = true; // yeni durum ilk taramada çıkarılmasın
+            states.put(created, created);
+            if (states.size() > cacheSize) {
+                evict();
+            }
+            return created;
+        }
+
+        // Doluluk payının sekizde biri birden boşaltılır, böylece satır taraması çıkarılan başına O(classCount) olur
+        private void evict() {
+            int target = cacheSize - Math.max(1, cacheSize / 8);
+            while (states.size() > Math.max(1, target)) {
+                DState eldest = states.keySet().iterator().next();
+                if (eldest.used) {
+                    eldest.used = false;
+                    states.get(eldest); // sona taşır
+                    continue;
+                }
+                states.remove(eldest);
+                eldest.next = null;
+            }
+            for (DState state : states.keySet()) {
+                DState[] row = state.next;
+                for (int i = 0; i < row.length; i++) {
+                    if (row[i] != null && row[i] != dead && row[i].next == null) row[i] = null;
+                }
+            }
+        }
+    }
+}
+
+// Toplu girdileri ForkJoin havuzuna böler; her yaprak kararların kendi dilimini yazar
+class BatchExecutor extends SessionAction {
+    private static final int THRESHOLD = 4096;
+
+    private final Predicate<CharSequence> machine;
+    private final CompiledFSM lockstep; // null değilse yapraklar girdileri gruplar halinde birlikte yürütür
+    private final List<? extends CharSequence> inputs;
+    private final boolean[] verdicts;
+    private final int from;
+    private final int to;
+
+    BatchExecutor(Predicate<CharSequence> machine, CompiledFSM lockstep, List<? extends CharSequence> inputs,
+                  boolean[] verdicts, int from, int to) {
+        this.machine = machine;
+        this.lockstep = lockstep;
+        this.inputs = inputs;
+        this.verdicts = verdicts;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void computeInSession() {
+        if (to - from <= THRESHOLD) {
+            if (lockstep != null) {
+                lockstep.acceptsLockstep(inputs, from, to, verdicts);
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                verdicts[i] = machine.test(inputs.get(i));
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        invokeAll(new BatchExecutor(machine, lockstep, inputs, verdicts, from, mid),
+                new BatchExecutor(machine, lockstep, inputs, verdicts, mid, to));
+    }
+}
+
+// EXECUTE-BATCH ... PREFIX: girdiler sıralanır, böylece sıralı liste girdilerin trie'sinin
+// derinlik öncelikli gezintisi olur. Her girdi bir öncekiyle ortak önekin sonundaki durumdan
+// devam eder, ortak önekler parça başına bir kez yürünür. Sonuçlar girdi sırasına yazılır.
+class PrefixBatchExecutor extends SessionAction {
+    private static final int THRESHOLD = 4096;
+
+    private final CompiledFSM machine;
+    private final String[] sorted;
+    private final boolean[] verdicts; // sorted ile aynı sırada
+    private final int from;
+    private final int to;
+    private final LongAdder walked;
+
+    private PrefixBatchExecutor(CompiledFSM machine, String[] sorted, boolean[] verdicts,
+                                int from, int to, LongAdder walked) {
+        this.machine = machine;
+        this.sorted = sorted;
+        this.verdicts = verdicts;
+        this.from = from;
+        this.to = to;
+        this.walked = walked;
+    }
+
+    // Yürünen geçiş sayısını döndürür. Dizinler yerine String'ler sıralanır (karşılaştırma
+    // doğrudan String.compareTo); sonuçlar girdi sırasına nesne kimliğiyle geri dağıtılır,
+    // aynı nesne birden fazla geçiyorsa kararı da aynıdır.
+    static long run(CompiledFSM machine, List<String> inputs, boolean[] verdicts) {
+        String[] sorted = inputs.toArray(new String[0]);
+        Arrays.parallelSort(sorted);
+        boolean[] sortedVerdicts = new boolean[sorted.length];
+        LongAdder walked = new LongAdder();
+        ForkJoinPool.commonPool().invoke(
+                new PrefixBatchExecutor(machine, sorted, sortedVerdicts, 0, sorted.length, walked));
+
+        Map<String, Boolean> byInput = new IdentityHashMap<>(sorted.length * 2);
+        for (int i = 0; i < sorted.length; i++) byInput.put(sorted[i], sortedVerdicts[i]);
+        for (int i = 0; i < verdicts.length; i++) verdicts[i] = byInput.get(inputs.get(i));
+        return walked.sum();
+    }
+
+    @Override
+    protected void computeInSession() {
+        if (to - from <= THRESHOLD) {
+            walk();
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        invokeAll(new PrefixBatchExecutor(machine, sorted, verdicts, from, mid, walked),
+                new PrefixBatchExecutor(machine, sorted, verdicts, mid, to, walked));
+    }
+
+    private void walk() {
+        int maxLength = 0;
+        for (int i = from; i < to; i++) maxLength = Math.max(maxLength, sorted[i].length());
+        int[] states = new int[maxLength + 1]; // states[d]: önekin d sembolünden sonraki durum
+        states[0] = machine.getInitialState();
+        int known = 1; // states[0..known) önceki girdi için hesaplandı
+        char[] previous = new char[0];
+        long steps = 0;
+        for (int i = from; i < to; i++) {
+            char[] input = sorted[i].toCharArray(); // ortak önek Arrays.mismatch ile vektörel bulunur
+            int common = Arrays.mismatch(previous, input);
+            if (common < 0) common = input.length;
+            int depth = Math.min(common, known - 1);
+            while (depth < input.length && states[depth] != CompiledFSM.NO_TRANSITION) {
+                int symbol = machine.symbolId(input[depth]);
+                states[depth + 1] = symbol == CompiledFSM.NO_SYMBOL
+                        ? CompiledFSM.NO_TRANSITION : machine.next(states[depth], symbol);
+                depth++;
+                steps++;
+            }
+            known = depth + 1;
+            int last = states[depth];
+            verdicts[i] = depth == input.length && last != CompiledFSM.NO_TRANSITION && machine.isFinal(last);
+            previous = input;
+        }
+        walked.add(steps);
+    }
+}
+
+// EXECUTE-FILE'ın çok çekirdekli yolu. Pencere parçalara bölünür; ilk parça bilinen durumdan,
+// diğerleri her durumdan birlikte yürütülür ve başlangıç -> sonuç eşlemesi çıkarır. Eşlemeler
+// soldan sağa birleştirilince sonuç ve durma konumu sıralı yürütmeyle aynıdır. Aynı duruma
+// yakınsayan kollar periyodik olarak birleştirilir; kol sayısı bütçeyi aşan parça bırakılır ve
+// birleştirme sırasında sıralı yürütülür.
+final class SpeculativeExecutor {
+    static final int MAX_STATES = 4096; // daha büyük makinelerde her durumdan yürütmek pahalı
+    static final long MIN_BYTES = 16L << 20;
+    private static final int MERGE_INTERVAL = 64;
+    private static final int MIN_CHUNK = 1 << 20;
+
+    // Yürütmenin konumu; stop RUNNING değilse position/symbol durma yerini, state durmadan önceki durumu
+    // (DEAD_STATE'te girilen ölü durumu) verir
+    static final class Cursor {
+        static final int RUNNING = 0;
+        static final int NO_TRANSITION = 1;
+        static final int INVALID_SYMBOL = 2;
+        static final int DEAD_STATE = 3;
+
+        int state;
+        int stop = RUNNING;
+        long position;
+        char symbol;
+        long symbols;
+
+        Cursor(int state) {
+            this.state = state;
+        }
+    }
+
+    private SpeculativeExecutor() {
+    }
+
+    static boolean applies(CompiledFSM machine, long size) {
+        return ForkJoinPool.getCommonPoolParallelism() > 1 && size >= MIN_BYTES
+                && machine.getStateCount() <= MAX_STATES;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    // [from, to) baytlarını cursor'un durumundan sıralı yürütür; durursa false
+    static boolean advance(CompiledFSM machine, ByteBuffer buffer, int from, int to, long base, Cursor cursor) {
+        boolean[] dead = machine.deadStates();
+        int current = cursor.state;
+        long symbols = 0;
+        try {
+            for (int i = from; i < to; i++) {
+                byte b = buffer.get(i);
+                if (isWhitespace(b)) continue;
+
+                char ch = (char) (b & 0xFF);
+                int symbol = machine.symbolId(ch);
+                if (symbol == CompiledFSM.NO_SYMBOL) {
+                    cursor.stop = Cursor.INVALID_SYMBOL;
+                    cursor.position = base + i;
+                    cursor.symbol = ch;
+                    return false;
+                }
+                int next = machine.next(current, symbol);
+                if (next == CompiledFSM.NO_TRANSITION) {
+                    cursor.stop = Cursor.NO_TRANSITION;
+                    cursor.position = base + i;
+                    return false;
+                }
+                current = next;
+                symbols++;
+                if (dead != null && dead[current]) {
+                    cursor.stop = Cursor.DEAD_STATE;
+                    cursor.position = base + i;
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            cursor.state = current;
+            cursor.symbols += symbols;
+        }
+    }
+
+    // Bir penceredeki [0, length) baytları paralel yürütür ve cursor'a uygular
+    static void run(CompiledFSM machine, ByteBuffer buffer, int length, long base, Cursor cursor) {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int chunkSize = Math.max(MIN_CHUNK, (int) Math.min(Integer.MAX_VALUE, (long) length / (parallelism * 4L)));
+        int laneBudget = Math.max(1, parallelism / 2);
+        List<Chunk> chunks = new ArrayList<>();
+        int[] allStates = new int[machine.getStateCount()];
+        for (int q = 0; q < allStates.length; q++) allStates[q] = q;
+        for (int from = 0; from < length; from += chunkSize) {
+            int[] starts = from == 0 ? new int[]{cursor.state} : allStates;
+            chunks.add(new Chunk(machine, buffer, from, Math.min(length, from + chunkSize), base, starts, laneBudget));
+        }
+        ForkJoinTask.invokeAll(chunks);
+
+        for (Chunk chunk : chunks) {
+            if (chunk.abandoned) {
+                if (!advance(machine, buffer, chunk.from, chunk.to, base, cursor)) return;
+                continue;
+            }
+            int lane = chunk.lane[cursor.state];
+            if (chunk.stopAt[lane] >= 0) {
+                cursor.stop = chunk.stopKind[lane];
+                cursor.position = chunk.stopAt[lane];
+                cursor.symbol = chunk.invalid;
+                cursor.state = chunk.stopState[lane];
+                return;
+            }
+            cursor.state = chunk.end[lane];
+            cursor.symbols += chunk.symbols;
+        }
+    }
+
+    // Kollar başlangıç durumlarıyla numaralanır; birleşen kol parent ile yaşayan kola bağlanır
+    private static final class Chunk extends SessionAction {
+        final CompiledFSM machine;
+        final ByteBuffer buffer;
+        final int from;
+        final int to;
+        final long base;
+        final int[] starts;
+        final int laneBudget;
+
+        int[] lane;          // başlangıç durumu -> sonucu taşıyan kol
+        int[] end;           // kol -> bitiş durumu
+        long[] stopAt;       // kol -> durduğu bayt, durmadıysa -1
+        int[] stopState;     // kol -> durmadan önceki durum, ölü durumda durduysa o durum
+        int[] stopKind;      // kol -> Cursor'daki durma nedeni
+        char invalid;
+        long symbols;
+        boolean abandoned;
+
+        Chunk(CompiledFSM machine, ByteBuffer buffer, int from, int to, long base, int[] starts, int laneBudget) {
+            this.machine = machine;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.base = base;
+            this.starts = starts;
+            this.laneBudget = laneBudget;
+        }
+
+        @Override
+        protected void computeInSession() {
+            int n = machine.getStateCount();
+            int[] current = new int[n];
+            int[] parent = new int[n];
+            int[] active = new int[starts.length];
+            int[] owner = new int[n];
+            int[] ownerStamp = new int[n];
+            end = new int[n];
+            stopAt = new long[n];
+            stopState = new int[n];
+            stopKind = new int[n];
+            Arrays.fill(stopAt, -1);
+            boolean[] dead = machine.deadStates();
+            for (int a = 0; a < starts.length; a++) {
+                int q = starts[a];
+                current[q] = q;
+                parent[q] = q;
+                active[a] = q;
+            }
+            int count = starts.length;
+            int stamp = 0;
+            long steps = 0;
+
+            for (int i = from; i < to && count > 0; i++) {
+                byte b = buffer.get(i);
+                if (isWhitespace(b)) continue;
+
+                char ch = (char) (b & 0xFF);
+                int symbol = machine.symbolId(ch);
+                if (symbol == CompiledFSM.NO_SYMBOL) {
+                    // geçersiz sembol durumdan bağımsızdır: yaşayan tüm kollar burada durur
+                    for (int a = 0; a < count; a++) {
+                        int l = active[a];
+                        stopAt[l] = base + i;
+                        stopState[l] = current[l];
+                        stopKind[l] = Cursor.INVALID_SYMBOL;
+                    }
+                    invalid = ch;
+                    count = 0;
+                    break;
+                }
+                symbols++;
+                for (int a = 0; a < count; a++) {
+                    int l = active[a];
+                    int next = machine.next(current[l], symbol);
+                    if (next == CompiledFSM.NO_TRANSITION) {
+                        stopAt[l] = base + i;
+                        stopState[l] = current[l];
+                        stopKind[l] = Cursor.NO_TRANSITION;
+                        active[a--] = active[--count];
+                    } else if (dead != null && dead[next]) {
+                        stopAt[l] = base + i;
+                        stopState[l] = next;
+                        stopKind[l] = Cursor.DEAD_STATE;
+                        active[a--] = active[--count];
+                    } else {
+                        current[l] = next;
+                    }
+                }
+                if (++steps % MERGE_INTERVAL == 0) {
+                    stamp++;
+                    for (int a = 0; a < count; a++) {
+                        int l = active[a];
+                        int q = current[l];
+                        if (ownerStamp[q] == stamp) {
+                            parent[l] = owner[q];
+                            active[a--] = active[--count];
+                        } else {
+                            ownerStamp[q] = stamp;
+                            owner[q] = l;
+                        }
+                    }
+                    if (count > laneBudget) {
+                        abandoned = true;
+                        return;
+                    }
+                }
+            }
+            for (int a = 0; a < count; a++) {
+                end[active[a]] = current[active[a]];
+            }
+            lane = new int[n];
+            for (int q : starts) {
+                int root = q;
+                while (parent[root] != root) root = parent[root];
+                lane[q] = root;
+            }
+        }
+    }
+}
+
+//Transition class
+ class Transition {
+    private String currentState;
+    private char inputSymbol;
+    private String nextState;
+
+    public Transition(String currentState, char inputSymbol, String nextState) {
+        this.currentState = currentState.toUpperCase();
+        this.inputSymbol = inputSymbol;
+        this.nextState = nextState.toUpperCase();
+    }
+
+    public String getCurrentState() {
+        return currentState;
+    }
+
+    public char getInputSymbol() {
+        return inputSymbol;
+    }
+
+    public String getNextState() {
+        return nextState;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + currentState + ", " + inputSymbol + ") → " + nextState;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Transition)) return false;
+        Transition t = (Transition) o;
+        return inputSymbol == t.inputSymbol &&
+               currentState.equalsIgnoreCase(t.currentState) &&
+               nextState.equalsIgnoreCase(t.nextState);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(currentState.toLowerCase(), inputSymbol, nextState.toLowerCase());
+    }
+}
+class State {
+    private final String name;
+
+    public State(String name) {
+        this.name = name.toUpperCase(); // case-insensitive
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof State))
+            return false;
+        State state = (State) o;
+        return name.equalsIgnoreCase(state.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name.toLowerCase());
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
+
+// EXECUTE sonuç önbelleği: girdi -> karar, son durum ve (EXECUTE ise) iz satırı.
+// Giriş sayısı ve tahmini bayt ile sınırlı LRU; makinenin sürümü değişince boşaltılır.
+class ExecutionCache {
+    static final int DEFAULT_ENTRIES = 1 << 16;
+    static final long DEFAULT_BYTES = 64L << 20;
+    private static final int ENTRY_OVERHEAD = 160; // map girdisi + Result + String başlıkları
+
+    static final class Result {
+        final boolean accepted;
+        final String finalState; // sadece EXECUTE ile dolan girdilerde
+        final String trace;
+        final int rejectedAt; // reddin kesinleştiği konum (CompiledFSM.rejectionPoint), kabulde ACCEPTED
+
+        Result(boolean accepted, String finalState, String trace, int rejectedAt) {
+            this.accepted = accepted;
+            this.finalState = finalState;
+            this.trace = trace;
+            this.rejectedAt = rejectedAt;
+        }
+
+        long estimateBytes(String input) {
+            return ENTRY_OVERHEAD + 2L * input.length() + (trace == null ? 0 : 2L * trace.length());
+        }
+    }
+
+    private final LinkedHashMap<String, Result> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int maxEntries = DEFAULT_ENTRIES;
+    private long maxBytes = DEFAULT_BYTES;
+    private long bytes;
+    private long version = -1;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    Result get(long machineVersion, String input) {
+        if (machineVersion != version) {
+            reset(machineVersion);
+        }
+        Result result = entries.get(input);
+        if (result == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return result;
+    }
+
+    void put(long machineVersion, String input, Result result) {
+        if (machineVersion != version) {
+            reset(machineVersion);
+        }
+        long size = result.estimateBytes(input);
+        if (size > maxBytes) return;
+        Result previous = entries.put(input, result);
+        bytes += size - (previous == null ? 0 : previous.estimateBytes(input));
+        trim();
+    }
+
+    void setLimits(int entryLimit, long byteLimit) {
+        maxEntries = entryLimit;
+        maxBytes = byteLimit;
+        trim();
+    }
+
+    void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    private void reset(long machineVersion) {
+        clear();
+        version = machineVersion;
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<String, Result>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            Map.Entry<String, Result> entry = eldest.next();
+            bytes -= entry.getValue().estimateBytes(entry.getKey());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    String report() {
+        long lookups = hits + misses;
+        return String.format("entries=%d/%d memory=%.1f/%.1fMB hits=%d misses=%d hit-ratio=%.1f%% evictions=%d",
+                entries.size(), maxEntries, bytes / 1048576.0, maxBytes / 1048576.0, hits, misses,
+                lookups == 0 ? 0.0 : 100.0 * hits / lookups, evictions);
+    }
+}
+//FSMCommandHandler class
+class FSMCommandHandler {
+    private static final long MAP_WINDOW = 1L << 30; // tek seferde eşlenen en fazla bayt
+
+    private FSM fsm; // derlenmiş tablo ve motor ayarları arayüzde değil, FSM'de
+    private ExecutionCache memo; // MEMO ON ile kurulur, null ise kapalı
+
+    public FSMCommandHandler(FSM fsm) {
+        this.fsm = fsm;
+    }
+
+    void setMemo(ExecutionCache memo) {
+        this.memo = memo;
+    }
+
+    //setters and getters
+    public InterFSM getFSM() {
+        return fsm;
+    }
+
+    public void setFSM(FSM fsm) {
+        this.fsm = fsm;
+    }
+
+    public void handleSymbolsCommand(String[] tokens) throws InvalidSymbolException {
+        List<String> errorMessages = new ArrayList<>();
+
+        for (String symbol : tokens) {
+            if (symbol.length() != 1) {
+                errorMessages.add(symbol + " is not allowed as a symbol, length must be 1.");
+                continue;
+            }
+
+            if (!symbol.matches("[a-zA-Z0-9]")) {
+                errorMessages.add(symbol + " is not allowed, not alphanumeric.");
+                continue;
+            }
+
+            fsm.addSymbol(symbol.toUpperCase());
+        }
+
+        if (!errorMessages.isEmpty()) {
+            throw new InvalidSymbolException(String.join(" ", errorMessages));
+        }
+    }
+
+
+    public void handleStatesCommand(String[] tokens) throws InvalidStateException {
+        for (String state : tokens) {
+            if (!state.matches("[a-zA-Z0-9]+")) {
+                throw new InvalidStateException("Invalid state: " + state);
+            }
+            fsm.addState(state.toUpperCase());
+        }
+    }
+
+    public void handleInitialStateCommand(String state) throws InvalidStateException {
+        if (!fsm.setInitialState(state)) {
+            throw new InvalidStateException("Initial state must be a declared state: " + state);
+        }
+    }
+
+    public void handleFinalStatesCommand(String[] states) throws InvalidStateException {
         for (String state : states) {
             if (!fsm.addFinalState(state)) {
                 throw new InvalidStateException("Final state must be a declared state: " + state);
@@ -437,90 +2502,345 @@ class FSMCommandHandler {
         }
     }
 
-    public void handleTransitionsCommand(String[] transitionStrings) throws TransitionException {
-        for (String transition : transitionStrings) {
-            String[] parts = transition.trim().split("\\s+");
-            if (parts.length != 3) {
-                throw new TransitionException("Invalid transition format: " + transition);
+    // Argümanlar virgülle ayrılmış "sembol kaynak hedef" üçlüleri; virgül token içinde ya da tek başına olabilir
+    public void handleTransitionsCommand(List<String> args) throws TransitionException {
+        List<String> words = new ArrayList<>(3);
+        for (String token : args) {
+            int start = 0;
+            for (int i = 0; i <= token.length(); i++) {
+                char c = i < token.length() ? token.charAt(i) : ' ';
+                if (c == ',' || CommandLexer.isWhitespace(c)) {
+                    if (i > start) words.add(token.substring(start, i));
+                    start = i + 1;
+                }
+                if (c == ',') {
+                    addTransition(words);
+                    words.clear();
+                }
             }
+        }
+        if (!words.isEmpty()) {
+            addTransition(words); // son üçlü virgülsüz biter
+        }
+    }
 
-            String symbol = parts[0];
-            String from = parts[1];
-            String to = parts[2];
-
-            if (!fsm.addTransition(symbol, from, to)) {
-                throw new TransitionException("Transition invalid: " + transition);
-            }
+    private void addTransition(List<String> words) throws TransitionException {
+        if (words.size() != 3) {
+            throw new TransitionException("Invalid transition format: " + String.join(" ", words));
+        }
+        if (!fsm.addTransition(words.get(0), words.get(1), words.get(2))) {
+            throw new TransitionException("Transition invalid: " + String.join(" ", words));
         }
     }
     public void handleStatesListCommand() {
-        Set<String> states = fsm.getStates();
+        Set<String> states = fsm.statesView();
         String initial = fsm.getCurrentState();
-        Set<String> finals = fsm.getFinalStates();
+        Set<String> finals = fsm.finalStatesView();
 
         List<String> labeledStates = new ArrayList<>();
         for (String state : states) {
             boolean isInitial = state.equals(initial);
             boolean isFinal = finals.contains(state);
 
-            if (isInitial && isFinal) {
-                labeledStates.add(state + " (initial, final)");
-            } else if (isInitial) {
-                labeledStates.add(state + " (initial)");
-            } else if (isFinal) {
-                labeledStates.add(state + " (final)");
-            } else {
-                labeledStates.add(state);
+            if (isInitial && isFinal) {
+                labeledStates.add(state + " (initial, final)");
+            } else if (isInitial) {
+                labeledStates.add(state + " (initial)");
+            } else if (isFinal) {
+                labeledStates.add(state + " (final)");
+            } else {
+                labeledStates.add(state);
+            }
+        }
+
+        System.out.println("LABELED STATES: " + labeledStates);
+    }
+
+
+    public void handlePrintCommand(String filename) {
+        System.out.println("SYMBOLS: " + fsm.symbolsView());
+        System.out.println("STATES: " + fsm.statesView());
+        System.out.println("INITIAL STATE: " + fsm.getCurrentState());
+        System.out.println("FINAL STATES: " + fsm.finalStatesView());
+        System.out.println("TRANSITIONS:");
+        fsm.forEachTransition((symbol, from, to) -> System.out.println(symbol + " " + from + " " + to));
+    }
+    public String executeFSM(String input) throws InvalidInputException {
+        if(input==null || input.isEmpty()) {
+            throw new InvalidInputException("Input cannot be null or empty");
+        }
+
+        // FSM'in başlangıç durumu kontrol edilmeli
+        if (fsm.getCurrentState() == null) {
+            return "Error: FSM is not initialized properly.";
+        }
+
+        Metrics.recordSymbols(input.length());
+        ExecutionCache.Result cached = memo == null ? null : memo.get(fsm.getVersion(), input);
+        if (cached != null && cached.trace != null) {
+            System.out.println(cached.accepted ? "YES" : "NO"); // execute'un yazdığı satır
+            return cached.trace;
+        }
+
+        ArrayList<String> trace = (ArrayList<String>) fsm.traceFSM(input);
+        boolean nondeterministic = fsm.isNondeterministic();
+
+        // Trace boş veya null olabilir, bu durumlar kontrol edilmeli
+        if (trace == null || trace.isEmpty()) {
+            return "Error: Execution failed.";
+        }
+
+        StringBuilder result = new StringBuilder();
+        for (String state : trace) {
+            result.append(state).append(" ");
+        }
+
+        String finalState = trace.get(trace.size() - 1);
+        if (nondeterministic) {
+            // NFA izinde son eleman bir durum kümesidir
+            result.append(trace.size() == input.length() + 1 && fsm.accepts(input) ? "YES" : "NO");
+        } else {
+            result.append(fsm.isFinal(finalState) ? "YES" : "NO");
+        }
+        // sadece girdinin tamamı işlendiyse ya da ölü durumda durulduysa: yazılan satır o zaman karardan ibarettir
+        boolean complete = trace.size() == input.length() + 1 || !nondeterministic && fsm.isDead(finalState)
+                && fsm.compile().firstInvalidSymbol(input, trace.size() - 1) < 0;
+        if (memo != null && complete) {
+            boolean accepted = result.charAt(result.length() - 1) == 'S';
+            // iz ölü durumda ya da girdi sonunda biter: tüketilen sembol sayısı ret konumudur
+            int rejectedAt = accepted ? CompiledFSM.ACCEPTED : trace.size() - 1;
+            memo.put(fsm.getVersion(), input, new ExecutionCache.Result(accepted, finalState, result.toString(), rejectedAt));
+        }
+        return result.toString();
+    }
+
+    // EXECUTE / EXECUTE-VERDICT (blok)^n: iz yerine sadece son durum ve karar
+    public String executePattern(String text, boolean verdictOnly) throws InvalidInputException {
+        if (fsm.getCurrentState() == null) {
+            return "Error: FSM is not initialized properly.";
+        }
+        if (fsm.isNondeterministic()) {
+            return "Error: repeated input patterns require DFA mode.";
+        }
+        InputPattern pattern = InputPattern.parse(text);
+        CompiledFSM machine = fsm.compile();
+        int invalid = pattern.firstInvalid(machine);
+        if (invalid >= 0) {
+            return "Error: invalid input symbol '" + String.valueOf((char) invalid).toUpperCase() + "'";
+        }
+        Metrics.recordSymbols(pattern.writtenLength());
+        String state = fsm.finalState(pattern);
+        boolean accepted = state != null && fsm.isFinal(state);
+        if (verdictOnly) {
+            return accepted ? "YES" : "NO";
+        }
+        return state == null ? "NO (no transition)" : state + " " + (accepted ? "YES" : "NO");
+    }
+
+    // MINIMIZE: makineyi en küçük eşdeğer DFA ile değiştirir
+    public String minimizeFSM() {
+        if (fsm.getCurrentState() == null) {
+            return "Error: FSM is not initialized properly.";
+        }
+        if (fsm.isNondeterministic()) {
+            return "Error: MINIMIZE requires DFA mode.";
+        }
+        int before = fsm.compile().getStateCount();
+        int after = fsm.minimize();
+        return "MINIMIZED: " + before + " states -> " + after + " states";
+    }
+
+    // MODE DFA | MODE NFA [önbellek boyutu]
+    public String handleModeCommand(String[] args) throws InvalidInputException {
+        if (args.length == 0) {
+            return fsm.isNondeterministic() ? "MODE NFA" : "MODE DFA";
+        }
+        String mode = args[0].toUpperCase();
+        if (mode.equals("DFA") && args.length == 1) {
+            return fsm.setNondeterministic(false) ? "MODE DFA" : "Error: machine has nondeterministic transitions, cannot switch to DFA mode.";
+        }
+        if (mode.equals("NFA") && args.length <= 2) {
+            if (args.length == 2) {
+                int cacheSize;
+                try {
+                    cacheSize = Integer.parseInt(args[1]);
+                } catch (NumberFormatException e) {
+                    throw new InvalidInputException("Invalid cache size: " + args[1]);
+                }
+                if (cacheSize <= 0) {
+                    throw new InvalidInputException("Cache size must be positive: " + args[1]);
+                }
+                fsm.setNfaCacheSize(cacheSize);
+            }
+            fsm.setNondeterministic(true);
+            return "MODE NFA";
+        }
+        throw new InvalidInputException("MODE expects DFA or NFA [cache-size]");
+    }
+
+    // STORAGE HEAP | STORAGE OFFHEAP
+    public String handleStorageCommand(String[] args) throws InvalidInputException {
+        if (args.length == 1 && args[0].equalsIgnoreCase("HEAP")) {
+            fsm.setOffHeap(false);
+        } else if (args.length == 1 && args[0].equalsIgnoreCase("OFFHEAP")) {
+            fsm.setOffHeap(true);
+        } else if (args.length != 0) {
+            throw new InvalidInputException("STORAGE expects HEAP or OFFHEAP");
+        }
+        return fsm.isOffHeap() ? "STORAGE OFFHEAP" : "STORAGE HEAP";
+    }
+
+    // EXECUTE-VERDICT: iz tutmadan sadece YES/NO
+    public String executeVerdict(String input) throws InvalidInputException {
+        if(input==null || input.isEmpty()) {
+            throw new InvalidInputException("Input cannot be null or empty");
+        }
+        if (fsm.getCurrentState() == null) {
+            return "Error: FSM is not initialized properly.";
+        }
+        Metrics.recordSymbols(input.length());
+        ExecutionCache.Result cached = memo == null ? null : memo.get(fsm.getVersion(), input);
+        if (cached != null) {
+            return verdict(cached.rejectedAt, input.length());
+        }
+        int rejectedAt;
+        if (fsm.isNondeterministic()) {
+            // NFA'da ölü durum analizi yok, konum raporlanmaz
+            rejectedAt = fsm.accepts(input) ? CompiledFSM.ACCEPTED : input.length();
+        } else {
+            rejectedAt = fsm.rejectionPoint(input);
+        }
+        if (memo != null) {
+            memo.put(fsm.getVersion(), input, new ExecutionCache.Result(rejectedAt == CompiledFSM.ACCEPTED, null, null, rejectedAt));
+        }
+        return verdict(rejectedAt, input.length());
+    }
+
+    // Erken ret konumu: ölü duruma, eksik geçişe ya da geçersiz sembole girdinin bitmesinden önce rastlandı
+    private static String verdict(int rejectedAt, int length) {
+        if (rejectedAt == CompiledFSM.ACCEPTED) return "YES";
+        return rejectedAt < length ? "NO (rejected at symbol " + rejectedAt + " of " + length + ")" : "NO";
+    }
+
+    // EXECUTE-BATCH: dosyadaki her satır bir girdi, boş satırlar atlanır
+    // prefix: ortak önekleri bir kez yürüyen sıralanmış toplu yürütme (sadece DFA)
+    public String executeBatch(String inputFile, String outputFile, boolean prefix) throws InvalidInputException, FileOperationException {
+        if (fsm.getCurrentState() == null) {
+            return "Error: FSM is not initialized properly.";
+        }
+        if (prefix && fsm.isNondeterministic()) {
+            return "Error: EXECUTE-BATCH ... PREFIX requires DFA mode.";
+        }
+
+        List<String> inputs = new ArrayList<>();
+        long symbols = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    inputs.add(line);
+                    symbols += line.length();
+                }
             }
+        } catch (IOException e) {
+            throw new FileOperationException("Error with reading file: " + e.getMessage());
+        }
+        Metrics.recordBytes(new File(inputFile).length());
+        if (inputs.isEmpty()) {
+            throw new InvalidInputException("Batch file contains no inputs: " + inputFile);
         }
 
-        System.out.println("LABELED STATES: " + labeledStates);
-    }
+        boolean[] verdicts;
+        long walked = -1;
+        if (prefix) {
+            verdicts = new boolean[inputs.size()];
+            walked = PrefixBatchExecutor.run(fsm.compile(), inputs, verdicts);
+        } else {
+            verdicts = fsm.executeBatch(inputs);
+        }
+        Metrics.recordSymbols(symbols);
+        int accepted = 0;
+        for (boolean verdict : verdicts) {
+            if (verdict) accepted++;
+        }
 
+        if (outputFile != null) {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile))) {
+                for (boolean verdict : verdicts) {
+                    writer.write(verdict ? "YES" : "NO");
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                throw new FileOperationException("Error with writing the file: " + e.getMessage());
+            }
+            Metrics.recordBytes(new File(outputFile).length());
+        }
 
-    public void handlePrintCommand(String filename) {
-        System.out.println("SYMBOLS: " + fsm.getSymbols());
-        System.out.println("STATES: " + fsm.getStates());
-        System.out.println("INITIAL STATE: " + fsm.getCurrentState());
-        System.out.println("FINAL STATES: " + fsm.getFinalStates());
-        System.out.println("TRANSITIONS:");
-        for (Map.Entry<Pair<String, String>, String> entry : fsm.getTransitions().entrySet()) {
-            Pair<String, String> key = entry.getKey();
-            String symbol = key.getFirst();
-            String from = key.getSecond();
-            String to = entry.getValue();
-            System.out.println(symbol + " " + from + " " + to);
+        String summary = "TOTAL: " + verdicts.length + " YES: " + accepted + " NO: " + (verdicts.length - accepted);
+        if (prefix) {
+            summary += String.format(" SYMBOLS: %d WALKED: %d SAVED: %.1f%%",
+                    symbols, walked, symbols == 0 ? 0.0 : 100.0 * (symbols - walked) / symbols);
         }
+        return summary;
     }
-    public String executeFSM(String input) throws InvalidInputException {
-        if(input==null || input.isEmpty()) {
-            throw new InvalidInputException("Input cannot be null or empty");
-        }
 
-        // FSM'in başlangıç durumu kontrol edilmeli
+    // EXECUTE-FILE: dosyayı parça parça belleğe eşleştirir, heap kullanımı sabit kalır
+    public String executeFile(String path) throws FileOperationException {
         if (fsm.getCurrentState() == null) {
             return "Error: FSM is not initialized properly.";
         }
+        if (fsm.isNondeterministic()) {
+            return "Error: EXECUTE-FILE requires DFA mode.";
+        }
 
-        ArrayList<String> trace = (ArrayList<String>) fsm.traceFSM(input);
-
-        // Trace boş veya null olabilir, bu durumlar kontrol edilmeli
-        if (trace == null || trace.isEmpty()) {
-            return "Error: Execution failed.";
+        CompiledFSM machine = fsm.compile();
+        int current = machine.getInitialState();
+        if (current == CompiledFSM.NO_TRANSITION) {
+            return "Error: initial state not set.";
         }
 
-        StringBuilder result = new StringBuilder();
-        for (String state : trace) {
-            result.append(state).append(" ");
+        // Büyük dosyada ve çok çekirdekte pencereler spekülatif paralel yürütülür, sonuç aynıdır
+        SpeculativeExecutor.Cursor cursor = new SpeculativeExecutor.Cursor(current);
+        if (machine.isDead(current)) {
+            cursor.stop = SpeculativeExecutor.Cursor.DEAD_STATE; // byte 0
+        }
+        long position = 0;
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            Metrics.recordBytes(size);
+            boolean speculative = SpeculativeExecutor.applies(machine, size);
+            while (position < size && cursor.stop == SpeculativeExecutor.Cursor.RUNNING) {
+                long window = Math.min(MAP_WINDOW, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, window);
+                if (speculative) {
+                    SpeculativeExecutor.run(machine, buffer, (int) window, position, cursor);
+                } else {
+                    SpeculativeExecutor.advance(machine, buffer, 0, (int) window, position, cursor);
+                }
+                position += window;
+            }
+        } catch (IOException | InvalidPathException e) {
+            throw new FileOperationException("Error with reading file: " + e.getMessage());
+        } finally {
+            Metrics.recordSymbols(cursor.symbols);
         }
 
-        String finalState = trace.get(trace.size() - 1);
-        result.append(fsm.getFinalStates().contains(finalState) ? "YES" : "NO");
-        return result.toString();
+        switch (cursor.stop) {
+            case SpeculativeExecutor.Cursor.INVALID_SYMBOL:
+                return "Error: invalid input symbol '" + String.valueOf(cursor.symbol).toUpperCase()
+                        + "' at byte " + cursor.position;
+            case SpeculativeExecutor.Cursor.NO_TRANSITION:
+                return machine.getStateName(cursor.state) + " NO (no transition at byte " + cursor.position + ")";
+            case SpeculativeExecutor.Cursor.DEAD_STATE:
+                return machine.getStateName(cursor.state) + " NO (dead state at byte " + cursor.position + ")";
+            default:
+                return machine.getStateName(cursor.state) + " " + (machine.isFinal(cursor.state) ? "YES" : "NO");
+        }
     }
 
     public boolean isAcceptedState(String state) {
-        return fsm.getFinalStates().contains(state.toUpperCase());
+        return fsm.isFinal(state);
     }
 }
 
@@ -542,14 +2862,14 @@ class FileManager {
     public void writeToFile(String filename) throws FileOperationException {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
             writer.write("SYMBOLS: ");
-            for (String symbol : fsm.getSymbols()) {
+            for (String symbol : fsm.symbolsView()) {
                 writer.write(" " + symbol);
             }
             writer.write(";");
             writer.newLine();
 
             writer.write("STATES: ");
-            for (String state : fsm.getStates()) {
+            for (String state : fsm.statesView()) {
                 writer.write(" " + state);
             }
             writer.write(";");
@@ -559,26 +2879,30 @@ class FileManager {
             writer.newLine();
 
             writer.write("FINAL-STATES: ");
-            for (String finalState : fsm.getFinalStates()) {
+            for (String finalState : fsm.finalStatesView()) {
                 writer.write(" " + finalState);
             }
             writer.write(";");
             writer.newLine();
 
             writer.write("TRANSITIONS: ");
-            for (Map.Entry<Pair<String, String>, String> entry : fsm.getTransitions().entrySet()) {
-                Pair<String, String> key = entry.getKey();
-                String symbol = key.getFirst();
-                String fromState = key.getSecond();
-                String toState = entry.getValue();
-
-                writer.write("TRANSITIONS " + symbol + " " + fromState + " " + toState + ";");
-                writer.newLine();
-            }
+            // visitor IOException fırlatamaz, ilk hata saklanıp sonra atılır
+            IOException[] failure = new IOException[1];
+            fsm.forEachTransition((symbol, fromState, toState) -> {
+                if (failure[0] != null) return;
+                try {
+                    writer.write("TRANSITIONS " + symbol + " " + fromState + " " + toState + ";");
+                    writer.newLine();
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) throw failure[0];
 
         } catch (IOException e) {
             throw new FileOperationException("Error with writing the file: " + e.getMessage());
         }
+        Metrics.recordBytes(new File(filename).length());
     }
 
     public void readToFile(String filename) throws FileOperationException {
@@ -615,13 +2939,26 @@ class FileManager {
 }
 
     class Logger {
+            // LOG <dosya> [COMMAND | INTERVAL <ms> | CLOSE]
+            enum Durability { COMMAND, INTERVAL, CLOSE }
+
+            private static final int RING_CAPACITY = 1 << 14;
+            private static final int BATCH_SIZE = 1024;
+            private static final long IDLE_POLL_MILLIS = 50;
+
             private static BufferedWriter logWriter = null;
-            private static String currentLogFile = null;
+            private static volatile String currentLogFile = null;
+            private static volatile Durability durability = Durability.COMMAND;
+            private static volatile AsyncWriter asyncWriter = null;
 
             public static String startLogging(String filename) {
+                return startLogging(filename, Durability.COMMAND, 0);
+            }
+
+            public static synchronized String startLogging(String filename, Durability level, long intervalMillis) {
                 try {
                     // If already logging, close current log file
-                    if (logWriter != null) {
+                    if (isLoggingEnabled()) {
                         stopLogging();
                     }
 
@@ -631,15 +2968,33 @@ class FileManager {
                     }
 
                     // Create new log file or overwrite existing one
-                    logWriter = new BufferedWriter(new FileWriter(filename));
+                    BufferedWriter writer = new BufferedWriter(new FileWriter(filename), 1 << 16);
+                    durability = level;
+                    if (level == Durability.COMMAND) {
+                        logWriter = writer;
+                    } else {
+                        long poll = level == Durability.INTERVAL ? intervalMillis : IDLE_POLL_MILLIS;
+                        asyncWriter = new AsyncWriter(writer, level == Durability.INTERVAL, poll);
+                        asyncWriter.start();
+                    }
                     currentLogFile = filename;
-                    return "Started logging to " + filename;
+                    if (level == Durability.INTERVAL) {
+                        return "Started logging to " + filename + " (flush every " + intervalMillis + " ms)";
+                    }
+                    return level == Durability.CLOSE ? "Started logging to " + filename + " (flush on close)"
+                            : "Started logging to " + filename;
                 } catch (IOException e) {
                     return "Error: Could not start logging to " + filename + " - " + e.getMessage();
                 }
             }
 
-            public static String stopLogging() {
+            public static synchronized String stopLogging() {
+                if (asyncWriter != null) {
+                    String error = asyncWriter.close();
+                    asyncWriter = null;
+                    currentLogFile = null;
+                    return error == null ? "STOPPED LOGGING" : "Error while closing log file: " + error;
+                }
                 if (logWriter != null) {
                     try {
                         logWriter.close();
@@ -654,35 +3009,706 @@ class FileManager {
                 }
             }
 
-            public static String log(String command, String response) {
-                if (logWriter == null) {
-                    return null; // Not logging, no error
-                }
+            public static String log(String command, String response) {
+                AsyncWriter async = asyncWriter;
+                if (async != null) {
+                    // arka plan thread'i yazar, komut thread'i kilit almaz
+                    return async.enqueue("> " + command + System.lineSeparator() + response);
+                }
+                return logSynchronously(command, response);
+            }
+
+            private static synchronized String logSynchronously(String command, String response) {
+                if (logWriter == null) {
+                    return null; // Not logging, no error
+                }
+
+                try {
+                    logWriter.write("> " + command);
+                    logWriter.newLine();
+                    logWriter.write(response);
+                    logWriter.newLine();
+                    logWriter.flush(); // Ensure content is written immediately
+                    return null;
+                } catch (IOException e) {
+                    return "Error writing to log file: " + e.getMessage();
+                }
+            }
+
+            public static boolean isLoggingEnabled() {
+                return currentLogFile != null;
+            }
+
+            public static String getCurrentLogFile() {
+                return currentLogFile;
+            }
+
+            public static Durability getDurability() {
+                return durability;
+            }
+
+            // Çok üreticili, tek tüketicili kilitsiz halka; dolarsa üretici yazıcı yetişene kadar bekler.
+            // Kapatma tail'e CLOSED bitini koyar: bitten önce sıra alan her girdi yazılır, sonra gelen reddedilir
+            private static final class AsyncWriter extends Thread {
+                private static final long CLOSED = Long.MIN_VALUE;
+                private final AtomicReferenceArray<String> slots = new AtomicReferenceArray<>(RING_CAPACITY);
+                private final AtomicLong tail = new AtomicLong(); // sıradaki ayrılacak sıra no, kapanınca | CLOSED
+                private volatile long head; // tüketicinin okuyacağı sıra no
+                private volatile String error;
+                private final BufferedWriter writer;
+                private final boolean flushOnInterval;
+                private final long pollNanos;
+
+                AsyncWriter(BufferedWriter writer, boolean flushOnInterval, long pollMillis) {
+                    super("fsm-log-writer");
+                    setDaemon(true);
+                    this.writer = writer;
+                    this.flushOnInterval = flushOnInterval;
+                    this.pollNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, pollMillis));
+                }
+
+                String enqueue(String entry) {
+                    long seq;
+                    while (true) {
+                        seq = tail.get();
+                        if ((seq & CLOSED) != 0) {
+                            return "Error writing to log file: logger is closed";
+                        }
+                        if (seq - head >= RING_CAPACITY) {
+                            if (!isAlive()) {
+                                // yazıcı ölmüşse halka hiç boşalmaz, beklemek yerine hata dönülür
+                                String failure = error;
+                                return "Error writing to log file: " + (failure == null ? "log writer stopped" : failure);
+                            }
+                            LockSupport.unpark(this); // halka dolu, yazıcıyı uyandır
+                            Thread.onSpinWait();
+                            continue;
+                        }
+                        if (tail.compareAndSet(seq, seq + 1)) break;
+                    }
+                    slots.set((int) (seq & (RING_CAPACITY - 1)), entry);
+                    if (seq - head == BATCH_SIZE) {
+                        LockSupport.unpark(this);
+                    }
+                    String failure = error;
+                    return failure == null ? null : "Error writing to log file: " + failure;
+                }
+
+                @Override
+                public void run() {
+                    long lastFlush = System.nanoTime();
+                    boolean dirty = false;
+                    while (true) {
+                        long claimed = tail.get();
+                        boolean stopping = (claimed & CLOSED) != 0;
+                        int drained = drain();
+                        dirty |= drained > 0;
+                        long now = System.nanoTime();
+                        if (dirty && flushOnInterval && now - lastFlush >= pollNanos) {
+                            flush();
+                            lastFlush = now;
+                            dirty = false;
+                        }
+                        if (stopping && head == (claimed & ~CLOSED)) break; // kapanmadan önce alınan son sıra da yazıldı
+                        if (drained < BATCH_SIZE) {
+                            LockSupport.parkNanos(this, pollNanos);
+                        }
+                    }
+                    flush();
+                    try {
+                        writer.close();
+                    } catch (IOException e) {
+                        error = e.getMessage();
+                    }
+                }
+
+                // sırayla yayınlanmış girdileri yazar, henüz yazılmamış bir slota gelince durur
+                private int drain() {
+                    long h = head;
+                    int count = 0;
+                    while (count < BATCH_SIZE) {
+                        int index = (int) (h & (RING_CAPACITY - 1));
+                        String entry = slots.get(index);
+                        if (entry == null) break;
+                        slots.set(index, null);
+                        h++;
+                        count++;
+                        try {
+                            writer.write(entry);
+                            writer.newLine();
+                        } catch (IOException e) {
+                            error = e.getMessage();
+                        }
+                    }
+                    head = h;
+                    return count;
+                }
+
+                private void flush() {
+                    try {
+                        writer.flush();
+                    } catch (IOException e) {
+                        error = e.getMessage();
+                    }
+                }
+
+                String close() {
+                    tail.getAndUpdate(seq -> seq | CLOSED);
+                    LockSupport.unpark(this);
+                    try {
+                        join();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return error;
+                }
+            }
+        }
+
+
+// STATS: komut başına sayaç ve gecikme histogramı, kapalıyken tek bir volatile okuma kadar maliyet
+class Metrics {
+    static final List<String> COMMANDS = CommandName.TIMED;
+    private static final String OTHER = "OTHER";
+    private static final Map<String, CommandStats> STATS = new LinkedHashMap<>();
+    // thread başına toplam iş: [0] sembol, [1] bayt; komut sonunda farkı alınır
+    private static final ThreadLocal<long[]> WORK = ThreadLocal.withInitial(() -> new long[2]);
+    private static volatile boolean enabled = true;
+
+    static {
+        for (String command : COMMANDS) STATS.put(command, new CommandStats());
+        STATS.put(OTHER, new CommandStats());
+    }
+
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    static CommandStats forCommand(String command) {
+        CommandStats stats = STATS.get(command);
+        return stats != null ? stats : STATS.get(OTHER);
+    }
+
+    static long[] work() {
+        return WORK.get();
+    }
+
+    static void recordSymbols(long count) {
+        if (enabled) WORK.get()[0] += count;
+    }
+
+    static void recordBytes(long count) {
+        if (enabled) WORK.get()[1] += count;
+    }
+
+    static void reset() {
+        for (CommandStats stats : STATS.values()) stats.reset();
+    }
+
+    static String report() {
+        StringBuilder out = new StringBuilder(enabled ? "STATS ON" : "STATS OFF");
+        out.append(String.format("%n%-16s %9s %7s %10s %10s %10s %10s %10s %14s %14s",
+                "COMMAND", "COUNT", "ERRORS", "MEAN(us)", "P50(us)", "P90(us)", "P99(us)", "MAX(us)", "SYMBOLS/S", "BYTES/S"));
+        for (Map.Entry<String, CommandStats> entry : STATS.entrySet()) {
+            CommandStats stats = entry.getValue();
+            long count = stats.count.sum();
+            if (count == 0) continue;
+            long nanos = stats.totalNanos.sum();
+            out.append(String.format("%n%-16s %9d %7d %10.1f %10.1f %10.1f %10.1f %10.1f %14s %14s",
+                    entry.getKey(), count, stats.errors.sum(), nanos / 1e3 / count,
+                    stats.latency.percentile(0.50) / 1e3, stats.latency.percentile(0.90) / 1e3,
+                    stats.latency.percentile(0.99) / 1e3, stats.latency.max() / 1e3,
+                    rate(stats.symbols.sum(), nanos), rate(stats.bytes.sum(), nanos)));
+        }
+        return out.toString();
+    }
+
+    private static String rate(long amount, long nanos) {
+        if (amount == 0 || nanos == 0) return "-";
+        return String.format("%.0f", amount * 1e9 / nanos);
+    }
+
+    static final class CommandStats {
+        final LongAdder count = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder symbols = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        void record(long nanos, boolean failed, long symbolCount, long byteCount) {
+            count.increment();
+            totalNanos.add(nanos);
+            latency.record(nanos);
+            if (failed) errors.increment();
+            if (symbolCount != 0) symbols.add(symbolCount);
+            if (byteCount != 0) bytes.add(byteCount);
+        }
+
+        void reset() {
+            count.reset();
+            errors.reset();
+            totalNanos.reset();
+            symbols.reset();
+            bytes.reset();
+            latency.reset();
+        }
+    }
+
+    // HDR benzeri log-doğrusal kovalar: her ikinin kuvveti 16 alt kovaya bölünür (~%6 hassasiyet)
+    static final class LatencyHistogram {
+        private static final int SUB_BITS = 4;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+        private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+            buckets.getAndIncrement(index(nanos));
+            max.accumulate(nanos);
+        }
+
+        static int index(long value) {
+            if (value < SUB_COUNT) return (int) value;
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+            return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+        }
+
+        static long lowerBound(int index) {
+            if (index < SUB_COUNT) return index;
+            int exponent = index / SUB_COUNT + SUB_BITS - 1;
+            return (long) (SUB_COUNT + index % SUB_COUNT) << (exponent - SUB_BITS);
+        }
+
+        long percentile(double quantile) {
+            long total = 0;
+            long[] snapshot = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = buckets.get(i);
+                total += snapshot[i];
+            }
+            if (total == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) return Math.min(lowerBound(i), max());
+            }
+            return max();
+        }
+
+        long max() {
+            return max.get();
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+            max.reset();
+        }
+    }
+}
+
+// Değişmez makine görüntüsü; LOAD önbelleğindeki her kopya bunu paylaşır
+final class FSMSnapshot {
+    final String[] symbols;
+    final String[] states;
+    final int[] finals;
+    final int initial;
+    final int current;
+    final boolean nondeterministic;
+    final int[] extras; // (sembol, kaynak, hedef) üçlülerinin id'leri
+    final CompiledFSM compiled;
+
+    FSMSnapshot(String[] symbols, String[] states, int[] finals, int initial, int current,
+                boolean nondeterministic, int[] extras, CompiledFSM compiled) {
+        this.symbols = symbols;
+        this.states = states;
+        this.finals = finals;
+        this.initial = initial;
+        this.current = current;
+        this.nondeterministic = nondeterministic;
+        this.extras = extras;
+        this.compiled = compiled;
+    }
+
+    // Kabaca heap maliyeti: tablo + isimler (String + dizi + set girdisi)
+    long estimateBytes() {
+        long bytes = (long) compiled.getStateCount() * compiled.getClassCount() * Integer.BYTES;
+        bytes += (long) states.length * 96 + (long) symbols.length * 96;
+        bytes += (long) (finals.length + extras.length) * Integer.BYTES;
+        return bytes;
+    }
+
+    FSM instantiate() {
+        return FSM.fromSnapshot(this);
+    }
+}
+
+// LOAD önbelleği: kanonik yol + mtime/boyut + içerik özeti ile anahtarlanır, bellek bütçesine göre LRU.
+// .fs dosyalarının özeti dosyanın kendi CRC'si; komut dosyalarının CRC32C'si tüm dosyadan hesaplanır.
+// Komut dosyası sadece tanım komutlarından oluşuyor ve boş makineye hatasız yüklendiyse saklanır,
+// istenirse derlenmiş hali diskteki önbellek dizinine de .fs olarak yazılır.
+class MachineCache {
+    static final Set<String> DEFINITION_COMMANDS = CommandName.DEFINITIONS;
+    private static final long HASH_CHUNK = 1L << 30;
+    // Dosya sistemi mtime çözünürlüğü için pay: özetten bu kadar önce değişmiş dosya aynı mtime ile yeniden yazılamaz
+    private static final long MTIME_SLACK_MILLIS = 2000;
+
+    static final class Key {
+        final String path;
+        final long modified;
+        final long size;
+        final long contentHash;
+
+        Key(String path, long modified, long size, long contentHash) {
+            this.path = path;
+            this.modified = modified;
+            this.size = size;
+            this.contentHash = contentHash;
+        }
+
+        boolean sameFile(Key other) {
+            return path.equals(other.path) && modified == other.modified && size == other.size;
+        }
+
+        boolean sameContent(Key other) {
+            return sameFile(other) && contentHash == other.contentHash;
+        }
+    }
+
+    private static final class Entry {
+        final Key key;
+        final FSMSnapshot snapshot;
+        final long bytes;
+        final long hashedAt; // özetin hesaplanmaya başlandığı an
+
+        Entry(Key key, FSMSnapshot snapshot, long hashedAt) {
+            this.key = key;
+            this.snapshot = snapshot;
+            this.bytes = snapshot.estimateBytes();
+            this.hashedAt = hashedAt;
+        }
+
+        // Dosya özetten yeterince önce değiştiyse mtime ve boyutun tutması yeterlidir
+        boolean settled() {
+            return key.modified < hashedAt - MTIME_SLACK_MILLIS;
+        }
+    }
+
+    private static final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private static boolean enabled = true;
+    private static long budgetBytes = Runtime.getRuntime().maxMemory() / 8;
+    private static long usedBytes;
+    private static File diskDirectory;
+    private static long hits;
+    private static long diskHits;
+    private static long misses;
+
+    // Anahtarın dosya kısmı (yol, mtime, boyut); içerik özeti sadece gerekince hesaplanır
+    static Key fileKey(File file) throws IOException {
+        File canonical = file.getCanonicalFile();
+        return new Key(canonical.getPath(), canonical.lastModified(), canonical.length(), 0);
+    }
+
+    static Key withContentHash(Key key) throws IOException {
+        long hash = key.path.toLowerCase().endsWith(".fs") ? storedChecksum(key) : checksum(key);
+        return new Key(key.path, key.modified, key.size, hash);
+    }
+
+    // .fs dosyasının son 8 baytı zaten içeriğin CRC'si
+    private static long storedChecksum(Key key) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(key.path), StandardOpenOption.READ)) {
+            ByteBuffer trailer = ByteBuffer.allocate(Long.BYTES);
+            channel.read(trailer, Math.max(0, channel.size() - Long.BYTES));
+            return trailer.flip().remaining() == Long.BYTES ? trailer.getLong() : 0;
+        }
+    }
+
+    private static long checksum(Key key) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(Path.of(key.path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long offset = 0; offset < size; offset += HASH_CHUNK) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(HASH_CHUNK, size - offset)));
+            }
+        }
+        return crc.getValue();
+    }
+
+    // Bellekte, yoksa disk önbelleğinde arar; dosya değişmişse girdi atılır.
+    // Önce mtime ve boyut karşılaştırılır; gerekirse özet kilit dışında hesaplanır
+    static FSMSnapshot get(File file, Serializer serializer) {
+        try {
+            Key key = fileKey(file);
+            Entry entry;
+            synchronized (MachineCache.class) {
+                if (!enabled) return null;
+                entry = entries.get(key.path);
+                if (entry != null && !entry.key.sameFile(key)) {
+                    remove(key.path);
+                    entry = null;
+                }
+            }
+            if (entry != null) {
+                if (entry.settled() || entry.key.sameContent(withContentHash(key))) {
+                    synchronized (MachineCache.class) {
+                        hits++;
+                    }
+                    return entry.snapshot;
+                }
+                synchronized (MachineCache.class) {
+                    if (entries.get(key.path) == entry) remove(key.path);
+                }
+            }
+
+            FSMSnapshot fromDisk = readDisk(key, serializer);
+            if (fromDisk != null) {
+                synchronized (MachineCache.class) {
+                    diskHits++;
+                }
+                return fromDisk;
+            }
+        } catch (IOException e) {
+            // dosyaya ulaşılamıyorsa LOAD kendi hatasını verir
+        }
+        synchronized (MachineCache.class) {
+            misses++;
+        }
+        return null;
+    }
+
+    // Yüklenen makineyi saklar, paylaşılan görüntüyü döndürür (kapalıysa null)
+    static FSMSnapshot put(File file, FSM fsm, Serializer serializer) {
+        synchronized (MachineCache.class) {
+            if (!enabled) return null;
+        }
+        try {
+            long hashedAt = System.currentTimeMillis();
+            Key key = withContentHash(fileKey(file));
+            FSMSnapshot snapshot = fsm.snapshot();
+            synchronized (MachineCache.class) {
+                if (!enabled) return null;
+                store(key, snapshot, hashedAt);
+                if (diskDirectory != null && !key.path.toLowerCase().endsWith(".fs")) {
+                    writeDisk(key, fsm, serializer);
+                }
+            }
+            return snapshot;
+        } catch (IOException | FileOperationException e) {
+            return null;
+        }
+    }
+
+    private static void store(Key key, FSMSnapshot snapshot, long hashedAt) {
+        remove(key.path);
+        Entry entry = new Entry(key, snapshot, hashedAt);
+        if (entry.bytes > budgetBytes) return;
+        entries.put(key.path, entry);
+        usedBytes += entry.bytes;
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (usedBytes > budgetBytes && eldest.hasNext()) {
+            usedBytes -= eldest.next().getValue().bytes;
+            eldest.remove();
+        }
+    }
+
+    private static void remove(String path) {
+        Entry old = entries.remove(path);
+        if (old != null) usedBytes -= old.bytes;
+    }
+
+    // Disk girdisi: <yol özeti>.fs ve anahtar bilgisi <yol özeti>.key
+    private static File diskFile(Key key, String suffix) {
+        CRC32C pathHash = new CRC32C();
+        pathHash.update(key.path.getBytes(StandardCharsets.UTF_8));
+        return new File(diskDirectory, String.format("%08x-%d%s", pathHash.getValue(), key.path.length(), suffix));
+    }
+
+    private static String describe(Key key) {
+        return key.path + "\n" + key.modified + " " + key.size + " " + key.contentHash;
+    }
+
+    private static FSMSnapshot readDisk(Key key, Serializer serializer) throws IOException {
+        File keyFile;
+        File machineFile;
+        synchronized (MachineCache.class) {
+            if (diskDirectory == null || key.path.toLowerCase().endsWith(".fs")) return null;
+            keyFile = diskFile(key, ".key");
+            machineFile = diskFile(key, ".fs");
+        }
+        if (!keyFile.isFile() || !machineFile.isFile()) return null;
+        String stored = new String(Files.readAllBytes(keyFile.toPath()), StandardCharsets.UTF_8);
+        long hashedAt = System.currentTimeMillis();
+        Key full = withContentHash(key);
+        if (!stored.equals(describe(full))) return null;
+        try {
+            FSMSnapshot snapshot = serializer.readFile(machineFile, true).snapshot();
+            synchronized (MachineCache.class) {
+                store(full, snapshot, hashedAt);
+            }
+            return snapshot;
+        } catch (FileOperationException | InvalidFileFormatException e) {
+            return null;
+        }
+    }
+
+    private static void writeDisk(Key key, FSM fsm, Serializer serializer) throws IOException, FileOperationException {
+        File machineFile = diskFile(key, ".fs");
+        File keyFile = diskFile(key, ".key");
+        keyFile.delete();
+        serializer.writeFile(fsm, machineFile);
+        // anahtar en son yazılır, yarım kalan bir .fs asla geçerli sayılmaz
+        Files.write(keyFile.toPath(), describe(key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static synchronized void setEnabled(boolean on) {
+        enabled = on;
+        if (!on) clear();
+    }
+
+    static synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    static synchronized void setBudgetMegabytes(long megabytes) {
+        budgetBytes = megabytes * 1024 * 1024;
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (usedBytes > budgetBytes && eldest.hasNext()) {
+            usedBytes -= eldest.next().getValue().bytes;
+            eldest.remove();
+        }
+    }
+
+    static synchronized void setDiskDirectory(File directory) {
+        diskDirectory = directory;
+    }
+
+    static synchronized String report() {
+        return (enabled ? "CACHE ON" : "CACHE OFF")
+                + " ENTRIES: " + entries.size()
+                + " MEMORY: " + usedBytes / 1024 + " KB / " + budgetBytes / 1024 + " KB"
+                + " HITS: " + hits + " DISK HITS: " + diskHits + " MISSES: " + misses
+                + " DIR: " + (diskDirectory == null ? "OFF" : diskDirectory.getPath());
+    }
+}
+
+// İsimli makineler (USE/LIST/DROP): her sürüm değişmez bir FSMSnapshot'tır.
+// Okuyucular son sürümü kilitsiz okur; düzenleme isim başına yazıcı kilidi altında
+// özel bir kopya üzerinde yapılır ve bitince yeni sürüm tek yazmayla yayınlanır.
+class MachineRegistry {
+    static final class Version {
+        final long number;
+        final FSMSnapshot snapshot;
+
+        Version(long number, FSMSnapshot snapshot) {
+            this.number = number;
+            this.snapshot = snapshot;
+        }
+    }
+
+    static final class Entry {
+        final String name;
+        final ReentrantLock writer = new ReentrantLock();
+        private volatile Version current; // DROP sonrası null
 
-                try {
-                    logWriter.write("> " + command);
-                    logWriter.newLine();
-                    logWriter.write(response);
-                    logWriter.newLine();
-                    logWriter.flush(); // Ensure content is written immediately
-                    return null;
-                } catch (IOException e) {
-                    return "Error writing to log file: " + e.getMessage();
-                }
-            }
+        Entry(String name, FSMSnapshot snapshot) {
+            this.name = name;
+            this.current = new Version(1, snapshot);
+        }
 
-            public static boolean isLoggingEnabled() {
-                return logWriter != null;
-            }
+        Version current() {
+            return current;
+        }
 
-            public static String getCurrentLogFile() {
-                return currentLogFile;
-            }
+        // yazıcı kilidi tutulurken çağrılır
+        Version publish(FSMSnapshot snapshot) {
+            Version next = new Version(current.number + 1, snapshot);
+            current = next;
+            return next;
+        }
+    }
+
+    private static final ConcurrentMap<String, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+    private MachineRegistry() {
+    }
+
+    // Yoksa verilen makineden ilk sürümü oluşturur
+    static Entry attach(String name, FSM machine) {
+        return ENTRIES.computeIfAbsent(name, n -> new Entry(n, machine.snapshot()));
+    }
+
+    static boolean contains(String name) {
+        return ENTRIES.containsKey(name);
+    }
+
+    static boolean drop(String name) {
+        Entry entry = ENTRIES.remove(name);
+        if (entry == null) return false;
+        entry.writer.lock();
+        try {
+            entry.current = null;
+        } finally {
+            entry.writer.unlock();
+        }
+        return true;
+    }
+
+    // Makineyi değiştiren komutlar yazıcı kilidi altında çalışır ve yeni sürüm yayınlar
+    static boolean isEdit(List<String> tokens) {
+        String cmd = tokens.get(0).toUpperCase();
+        switch (cmd) {
+            case "LOAD":
+            case "CLEAR":
+            case "MINIMIZE":
+                return true;
+            default:
+                return tokens.size() > 1 && MachineCache.DEFINITION_COMMANDS.contains(cmd);
         }
+    }
 
+    static String list(String currentName) {
+        if (ENTRIES.isEmpty()) {
+            return "NO MACHINES";
+        }
+        StringBuilder out = new StringBuilder();
+        for (String name : new TreeSet<>(ENTRIES.keySet())) {
+            Entry entry = ENTRIES.get(name);
+            Version version = entry == null ? null : entry.current();
+            if (version == null) continue;
+            if (out.length() > 0) out.append(System.lineSeparator());
+            out.append(name.equals(currentName) ? "* " : "  ").append(name)
+                    .append(" v").append(version.number)
+                    .append(" symbols=").append(version.snapshot.symbols.length)
+                    .append(" states=").append(version.snapshot.states.length);
+        }
+        return out.toString();
+    }
+}
 
-class Serializer implements Serializable {
-    private static final long serialVersionUID = 1;
+// İkili .fs biçimi, big-endian:
+//   int magic "FSMB", short sürüm, short bayraklar (bit 0: NFA modu)
+//   isim tablosu: önce semboller sonra durumlar, her biri short uzunluk + UTF-8 baytlar
+//   int başlangıç, int şu anki, int finalCount, int[] finaller (durum id'leri, -1 = yok)
+//   stateCount * symbolCount boyunda int[] sonraki durum tablosu (-1 = geçiş yok)
+//   int extraCount, (sembol, kaynak, hedef) üçlüleri olarak int[] NFA ek hedefleri
+//   yukarıdakilerin hepsinin long CRC32'si
+class Serializer {
+    static final int MAGIC = 0x46534D42; // "FSMB"
+    static final short VERSION = 1;
+    private static final short FLAG_NFA = 1;
+    private static final int JAVA_SERIALIZATION_MAGIC = 0xACED;
+    private static final long CRC_CHUNK = 1L << 30;
+    private static final ValueLayout.OfShort FILE_SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong FILE_LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
 
     public void serializeFSM(FSM fsm, String filename) throws FileOperationException, InvalidFileNameException, InvalidFilePathException {
         // Validate file name
@@ -701,11 +3727,25 @@ class Serializer implements Serializable {
             if (file.getParentFile() != null && !file.getParentFile().exists()) {
                 throw new InvalidFilePathException("Directory path does not exist: " + file.getParent());
             }
+            writeFile(fsm, file);
+        } catch (SecurityException e) {
+            throw new FileOperationException("Security violation when accessing file '" + filename + "': " + e.getMessage());
+        }
+    }
 
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) {
-                // Store the FSM's state instead of the FSM itself
-                SerializableFSMState state = new SerializableFSMState(fsm);
-                oos.writeObject(state);
+    // Dosya adı kontrolü yapmaz; LOAD önbelleği kendi dizinine bununla yazar
+    void writeFile(FSM fsm, File file) throws FileOperationException {
+        String filename = file.getPath();
+        try {
+            try (FileOutputStream stream = new FileOutputStream(file)) {
+                CRC32 crc = new CRC32();
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(new CheckedOutputStream(stream, crc), 1 << 16));
+                writeFSM(fsm, out);
+                out.flush();
+                // checksum kendisi hesaba katılmaz
+                new DataOutputStream(stream).writeLong(crc.getValue());
+                Metrics.recordBytes(stream.getChannel().position());
             } catch (IOException e) {
                 throw new FileOperationException("Error serializing FSM to file '" + filename + "': " + e.getMessage());
             }
@@ -714,8 +3754,83 @@ class Serializer implements Serializable {
         }
     }
 
+    private void writeFSM(FSM fsm, DataOutputStream out) throws IOException {
+        String[] symbols = fsm.symbolsView().toArray(new String[0]);
+        String[] states = fsm.statesView().toArray(new String[0]);
+        Map<String, Integer> stateIds = new HashMap<>();
+        for (int i = 0; i < states.length; i++) {
+            stateIds.put(states[i], i);
+        }
+
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(fsm.isNondeterministic() ? FLAG_NFA : 0);
+        out.writeInt(symbols.length);
+        for (String symbol : symbols) writeName(out, symbol);
+        out.writeInt(states.length);
+        for (String state : states) writeName(out, state);
+
+        out.writeInt(stateIds.getOrDefault(fsm.getInitialState(), -1));
+        out.writeInt(stateIds.getOrDefault(fsm.getCurrentState(), -1));
+        Set<String> finals = fsm.finalStatesView();
+        out.writeInt(finals.size());
+        for (String state : finals) out.writeInt(stateIds.get(state));
+
+        // Satırlar derlenmiş tablodan (heap, Arena ya da eşlenmiş dosya) dosya sırasıyla akıtılır;
+        // durum x sembol boyunda dizi ayrılmaz
+        CompiledFSM machine = fsm.compile();
+        int[] classOf = new int[symbols.length];
+        for (int s = 0; s < symbols.length; s++) {
+            classOf[s] = symbols[s].length() == 1 ? machine.symbolId(symbols[s].charAt(0)) : CompiledFSM.NO_SYMBOL;
+        }
+        int[] fileStateOf = new int[machine.getStateCount()];
+        for (int q = 0; q < fileStateOf.length; q++) {
+            fileStateOf[q] = stateIds.getOrDefault(machine.getStateName(q), CompiledFSM.NO_TRANSITION);
+        }
+        ByteBuffer chunk = ByteBuffer.allocate(1 << 16);
+        for (String state : states) {
+            int from = machine.getStateId(state);
+            for (int symbol : classOf) {
+                int to = from == CompiledFSM.NO_TRANSITION || symbol == CompiledFSM.NO_SYMBOL
+                        ? CompiledFSM.NO_TRANSITION : machine.next(from, symbol);
+                if (!chunk.hasRemaining()) {
+                    out.write(chunk.array(), 0, chunk.position());
+                    chunk.clear();
+                }
+                chunk.putInt(to == CompiledFSM.NO_TRANSITION ? CompiledFSM.NO_TRANSITION : fileStateOf[to]);
+            }
+        }
+        out.write(chunk.array(), 0, chunk.position());
+
+        List<Integer> extras = new ArrayList<>();
+        List<String> symbolList = Arrays.asList(symbols);
+        for (Map.Entry<Pair<String, String>, Set<String>> entry : fsm.getNondeterministicTransitions().entrySet()) {
+            for (String to : entry.getValue()) {
+                extras.add(symbolList.indexOf(entry.getKey().getFirst()));
+                extras.add(stateIds.get(entry.getKey().getSecond()));
+                extras.add(stateIds.get(to));
+            }
+        }
+        out.writeInt(extras.size() / 3);
+        for (int value : extras) out.writeInt(value);
+    }
+
+    private static void writeName(DataOutputStream out, String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
     public FSM deserializeFSM(String filename) throws FileOperationException, InvalidFileNameException,
             InvalidFilePathException, InvalidFileFormatException {
+        return deserializeFSM(filename, false);
+    }
+
+    // mapped: geçiş tablosu heap'e kopyalanmaz, dosya salt okunur eşlenmiş kalır.
+    // Bu modda sadece checksum atlanır; hedef id'ler açılışta tablo dosyadan taranarak denetlenir,
+    // yani açılış tablo boyuyla orantılıdır (O(tablo)) ama heap kullanımı sabittir.
+    public FSM deserializeFSM(String filename, boolean mapped) throws FileOperationException, InvalidFileNameException,
+            InvalidFilePathException, InvalidFileFormatException {
         // Validate file name
         if (filename == null || filename.trim().isEmpty()) {
             throw new InvalidFileNameException("File name cannot be null or empty");
@@ -738,152 +3853,774 @@ class Serializer implements Serializable {
             if (!file.canRead()) {
                 throw new FileOperationException("Cannot read file: " + filename);
             }
+            return readFile(file, mapped);
+        } catch (SecurityException e) {
+            throw new FileOperationException("Security violation when accessing file '" + filename + "': " + e.getMessage());
+        }
+    }
 
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-                Object obj = ois.readObject();
-                if (obj instanceof SerializableFSMState) {
-                    SerializableFSMState state = (SerializableFSMState) obj;
-                    try {
-                        return state.toFSM();
-                    } catch (InvalidSymbolException | InvalidStateException | TransitionException e) {
-                        throw new InvalidFileFormatException("File contains invalid FSM data: " + e.getMessage());
+    // Dosya adı kontrolü yapmaz; LOAD önbelleği kendi dizininden bununla okur
+    FSM readFile(File file, boolean mapped) throws FileOperationException, InvalidFileFormatException {
+        String filename = file.getPath();
+        try {
+            // eşlenmiş modda bellek GC'ye bırakılır, aksi halde okuma bitince serbest kalır
+            Arena arena = mapped ? Arena.ofAuto() : Arena.ofConfined();
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                long size = channel.size();
+                Metrics.recordBytes(size);
+                if (size < 16) {
+                    throw new InvalidFileFormatException("File '" + filename + "' does not contain a valid FSM");
+                }
+                MemorySegment content = channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+                if ((content.get(FILE_SHORT, 0) & 0xFFFF) == JAVA_SERIALIZATION_MAGIC) {
+                    throw new InvalidFileFormatException("File '" + filename
+                            + "' uses the old Java serialization format, load the source script and COMPILE it again");
+                }
+                long payload = size - Long.BYTES;
+                if (!mapped) {
+                    CRC32 crc = new CRC32();
+                    for (long offset = 0; offset < payload; offset += CRC_CHUNK) {
+                        crc.update(content.asSlice(offset, Math.min(CRC_CHUNK, payload - offset)).asByteBuffer());
+                    }
+                    if (crc.getValue() != content.get(FILE_LONG, payload)) {
+                        throw new InvalidFileFormatException("Checksum mismatch in file '" + filename + "'");
                     }
-                } else {
-                    throw new InvalidFileFormatException("File '" + filename + "' does not contain a valid FSM object");
                 }
-            } catch (InvalidClassException e) {
-                throw new InvalidFileFormatException("Incompatible FSM version in file '" + filename + "'");
-            } catch (ClassNotFoundException e) {
-                throw new InvalidFileFormatException("Missing class definition when deserializing from '" + filename + "'");
+                return readFSM(content.asSlice(0, payload), filename, mapped);
             } catch (IOException e) {
                 throw new FileOperationException("Error reading FSM from file '" + filename + "': " + e.getMessage());
+            } finally {
+                if (!mapped) arena.close();
             }
         } catch (SecurityException e) {
             throw new FileOperationException("Security violation when accessing file '" + filename + "': " + e.getMessage());
         }
     }
 
-    public static class SerializableFSMState implements Serializable {
-        private static final long serialVersionUID = 1L;
+    private FSM readFSM(MemorySegment content, String filename, boolean mapped) throws InvalidFileFormatException {
+        SegmentReader in = new SegmentReader(content);
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new InvalidFileFormatException("File '" + filename + "' does not contain a valid FSM");
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new InvalidFileFormatException("Incompatible FSM version " + version + " in file '" + filename + "'");
+            }
+            boolean nondeterministic = (in.readShort() & FLAG_NFA) != 0;
+            String[] symbols = in.readNames();
+            String[] states = in.readNames();
+            int initial = readStateId(in, states.length, true);
+            int current = readStateId(in, states.length, true);
+            int[] finals = new int[in.readCount(Integer.BYTES)];
+            for (int i = 0; i < finals.length; i++) finals[i] = readStateId(in, states.length, false);
+
+            long cells = (long) states.length * symbols.length;
+            MemorySegment tableSegment = in.skip(cells * Integer.BYTES);
+            int[] table = null;
+            if (!mapped) {
+                table = new int[Math.toIntExact(cells)];
+                MemorySegment.copy(tableSegment, CompiledFSM.FILE_INT, 0, table, 0, table.length);
+                for (int target : table) {
+                    if (target < CompiledFSM.NO_TRANSITION || target >= states.length) {
+                        throw new InvalidFileFormatException("Invalid next state in file '" + filename + "'");
+                    }
+                }
+            } else {
+                // kopyalamadan dosyadan okunarak: hatalı id yükleme anında reddedilir, yürütmede değil
+                for (long i = 0; i < cells; i++) {
+                    int target = tableSegment.getAtIndex(CompiledFSM.FILE_INT, i);
+                    if (target < CompiledFSM.NO_TRANSITION || target >= states.length) {
+                        throw new InvalidFileFormatException("Invalid next state in file '" + filename + "'");
+                    }
+                }
+            }
 
-        private Set<String> symbols;
-        private Set<String> states;
-        private Set<String> finalStates;
-        private String initialState;
-        private Map<SerializablePair<String, String>, String> transitions;
+            int[] extras = new int[in.readCount(3 * Integer.BYTES) * 3];
+            for (int i = 0; i < extras.length; i += 3) {
+                extras[i] = in.readInt();
+                if (extras[i] < 0 || extras[i] >= symbols.length) {
+                    throw new InvalidFileFormatException("Invalid symbol in file '" + filename + "'");
+                }
+                extras[i + 1] = readStateId(in, states.length, false);
+                extras[i + 2] = readStateId(in, states.length, false);
+            }
+            if (in.hasRemaining()) {
+                throw new InvalidFileFormatException("Unexpected trailing data in file '" + filename + "'");
+            }
+            FSM fsm = mapped
+                    ? FSM.restoreMapped(symbols, states, finals, initial, current, tableSegment, nondeterministic, extras)
+                    : FSM.restore(symbols, states, finals, initial, current, table, nondeterministic, extras);
+            if (fsm.getSymbolCount() != symbols.length || fsm.getStateCount() != states.length) {
+                throw new InvalidFileFormatException("Duplicate names in file '" + filename + "'");
+            }
+            return fsm;
+        } catch (IndexOutOfBoundsException | ArithmeticException | NegativeArraySizeException e) {
+            throw new InvalidFileFormatException("File '" + filename + "' is truncated or corrupt");
+        }
+    }
 
-        public SerializableFSMState(FSM fsm) {
-            this.symbols = new HashSet<>(fsm.getSymbols());
-            this.states = new HashSet<>(fsm.getStates());
-            this.finalStates = new HashSet<>(fsm.getFinalStates());
-            this.initialState = fsm.getCurrentState();
+    // .fs içeriğinde sıralı okuma; sınır dışına çıkılırsa IndexOutOfBoundsException
+    private static final class SegmentReader {
+        private final MemorySegment content;
+        private long position;
 
-            // Convert transitions to serializable format
-            this.transitions = new HashMap<>();
-            Map<Pair<String, String>, String> fsmTransitions = fsm.getTransitions();
-            for (Map.Entry<Pair<String, String>, String> entry : fsmTransitions.entrySet()) {
-                SerializablePair<String, String> key = new SerializablePair<>(
-                        entry.getKey().getFirst(), entry.getKey().getSecond());
-                transitions.put(key, entry.getValue());
-            }
+        SegmentReader(MemorySegment content) {
+            this.content = content;
         }
 
-        public FSM toFSM() throws InvalidSymbolException, InvalidStateException, TransitionException {
-            FSM fsm = new FSM();
+        int readInt() {
+            int value = content.get(CompiledFSM.FILE_INT, position);
+            position += Integer.BYTES;
+            return value;
+        }
 
-            // Add symbols
-            for (String symbol : symbols) {
-                fsm.addSymbol(symbol);
-            }
+        short readShort() {
+            short value = content.get(FILE_SHORT, position);
+            position += Short.BYTES;
+            return value;
+        }
 
-            // Add states
-            for (String state : states) {
-                fsm.addState(state);
+        // Dizi boyu: her eleman en az elementBytes yer kaplar, kalan bayta sığmayan sayı bozuk dosyadır
+        // (dosyadaki sayıyla bellek ayrılmadan önce kontrol edilir)
+        int readCount(int elementBytes) {
+            int count = readInt();
+            if (count < 0 || count > (content.byteSize() - position) / elementBytes) {
+                throw new IndexOutOfBoundsException("Count " + count + " exceeds remaining bytes");
             }
+            return count;
+        }
 
-            // Set initial state
-            if (initialState != null) {
-                fsm.setInitialState(initialState);
+        String[] readNames() {
+            String[] names = new String[readCount(Short.BYTES)];
+            for (int i = 0; i < names.length; i++) {
+                int length = readShort() & 0xFFFF;
+                names[i] = new String(skip(length).toArray(ValueLayout.JAVA_BYTE), StandardCharsets.UTF_8);
             }
+            return names;
+        }
 
-            // Add final states
-            for (String finalState : finalStates) {
-                fsm.addFinalState(finalState);
-            }
+        MemorySegment skip(long bytes) {
+            MemorySegment slice = content.asSlice(position, bytes);
+            position += bytes;
+            return slice;
+        }
 
-            // Add transitions
-            for (Map.Entry<SerializablePair<String, String>, String> entry : transitions.entrySet()) {
-                String symbol = entry.getKey().getFirst();
-                String currentState = entry.getKey().getSecond();
-                String nextState = entry.getValue();
+        boolean hasRemaining() {
+            return position < content.byteSize();
+        }
+    }
 
-                // Verify symbol, current state and next state are valid before adding transition
-                if (!symbols.contains(symbol)) {
-                    throw new InvalidSymbolException("Invalid symbol in serialized FSM: " + symbol);
-                }
+    private static int readStateId(SegmentReader in, int stateCount, boolean optional) throws InvalidFileFormatException {
+        int id = in.readInt();
+        if ((optional && id == -1) || (id >= 0 && id < stateCount)) {
+            return id;
+        }
+        throw new InvalidFileFormatException("Invalid state id in FSM file: " + id);
+    }
+}
+
+// EXECUTE (0123)^1000000 45 gibi tekrarlı girdiler. Gruplar iç içe olabilir; bir grup durum -> durum
+// eşlemesine çevrilip kare alarak kuvvetine yükseltilir, böylece maliyet girdi uzunluğu yerine
+// O(|Q| log n) olur. Üst seviyedeki düz parçalar ve açması daha ucuz gruplar tek durumla yürünür.
+final class InputPattern {
+    private final List<Object> items; // String ya da Repeat
+    private final long length;        // açılmış uzunluk, Long.MAX_VALUE'da doyar
+    private final int written;        // desende yazılı sembol sayısı (tekrarlar açılmadan)
+
+    private static final class Repeat {
+        final InputPattern body;
+        final long count;
+
+        Repeat(InputPattern body, long count) {
+            this.body = body;
+            this.count = count;
+        }
+    }
+
+    private InputPattern(List<Object> items, long length, int written) {
+        this.items = items;
+        this.length = length;
+        this.written = written;
+    }
+
+    // Desen sözdizimi karakterlerinden biri geçiyorsa girdi desen olarak ayrıştırılır;
+    // bozuk desen düz girdi gibi yürütülmez, hata olarak bildirilir
+    static boolean isPattern(List<String> words) {
+        for (String word : words) {
+            if (word.indexOf('(') >= 0 || word.indexOf(')') >= 0 || word.indexOf('^') >= 0) return true;
+        }
+        return false;
+    }
+
+    static InputPattern parse(String text) throws InvalidInputException {
+        int[] position = {0};
+        InputPattern pattern = parseSequence(text, position, false);
+        if (position[0] < text.length()) {
+            throw new InvalidInputException("Unmatched ')' in input pattern");
+        }
+        return pattern;
+    }
 
-                if (!states.contains(currentState)) {
-                    throw new InvalidStateException("Invalid current state in serialized FSM: " + currentState);
+    private static InputPattern parseSequence(String text, int[] position, boolean nested) throws InvalidInputException {
+        List<Object> items = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        long length = 0;
+        int written = 0;
+        while (position[0] < text.length()) {
+            char ch = text.charAt(position[0]);
+            if (CommandLexer.isWhitespace(ch)) {
+                position[0]++;
+            } else if (ch == ')') {
+                if (!nested) throw new InvalidInputException("Unmatched ')' in input pattern");
+                break;
+            } else if (ch == '^') {
+                throw new InvalidInputException("'^' must follow ')' in input pattern");
+            } else if (ch == '(') {
+                if (literal.length() > 0) {
+                    items.add(literal.toString());
+                    length = saturatingAdd(length, literal.length());
+                    literal.setLength(0);
+                }
+                position[0]++;
+                InputPattern body = parseSequence(text, position, true);
+                if (position[0] >= text.length() || text.charAt(position[0]) != ')') {
+                    throw new InvalidInputException("Missing ')' in input pattern");
+                }
+                if (body.items.isEmpty()) {
+                    throw new InvalidInputException("Empty group in input pattern");
                 }
+                position[0]++;
+                long count = parseCount(text, position);
+                items.add(new Repeat(body, count));
+                length = saturatingAdd(length, body.length > 0 && count > Long.MAX_VALUE / body.length
+                        ? Long.MAX_VALUE : body.length * count);
+                written += body.written;
+            } else {
+                literal.append(ch);
+                written++;
+                position[0]++;
+            }
+        }
+        if (literal.length() > 0) {
+            items.add(literal.toString());
+            length = saturatingAdd(length, literal.length());
+        }
+        return new InputPattern(items, length, written);
+    }
+
+    private static long parseCount(String text, int[] position) throws InvalidInputException {
+        if (position[0] >= text.length() || text.charAt(position[0]) != '^') {
+            throw new InvalidInputException("Expected ^<count> after ')' in input pattern");
+        }
+        int start = ++position[0];
+        while (position[0] < text.length() && Character.isDigit(text.charAt(position[0]))) position[0]++;
+        if (position[0] == start) {
+            throw new InvalidInputException("Expected ^<count> after ')' in input pattern");
+        }
+        try {
+            return Long.parseLong(text.substring(start, position[0]));
+        } catch (NumberFormatException e) {
+            throw new InvalidInputException("Invalid repeat count in input pattern: " + text.substring(start, position[0]));
+        }
+    }
+
+    private static long saturatingAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    // STATS için: tekrar sayısı ne olursa olsun okunan sembol sayısı yazılı desen kadardır
+    int writtenLength() {
+        return written;
+    }
 
-                if (!states.contains(nextState)) {
-                    throw new InvalidStateException("Invalid next state in serialized FSM: " + nextState);
+    // Makinede sembol olmayan ilk karakter, yoksa -1 (tekrar sayısı 0 olan gruplar dahil)
+    int firstInvalid(CompiledFSM machine) {
+        for (Object item : items) {
+            if (item instanceof String) {
+                String literal = (String) item;
+                for (int i = 0; i < literal.length(); i++) {
+                    if (machine.symbolId(literal.charAt(i)) == CompiledFSM.NO_SYMBOL) return literal.charAt(i);
                 }
+            } else {
+                int invalid = ((Repeat) item).body.firstInvalid(machine);
+                if (invalid >= 0) return invalid;
+            }
+        }
+        return -1;
+    }
+
+    // Başlangıç durumundan son durum; geçiş yoksa NO_TRANSITION
+    int finalState(CompiledFSM machine) {
+        return apply(machine, machine.getInitialState());
+    }
 
-                fsm.addTransition(symbol, currentState, nextState);
+    private int apply(CompiledFSM machine, int state) {
+        for (Object item : items) {
+            if (state == CompiledFSM.NO_TRANSITION) break;
+            if (item instanceof String) {
+                String literal = (String) item;
+                for (int i = 0; i < literal.length() && state != CompiledFSM.NO_TRANSITION; i++) {
+                    state = machine.next(state, machine.symbolId(literal.charAt(i)));
+                }
+            } else {
+                Repeat repeat = (Repeat) item;
+                if (unrollIsCheaper(machine, repeat)) {
+                    for (long k = 0; k < repeat.count && state != CompiledFSM.NO_TRANSITION; k++) {
+                        state = repeat.body.apply(machine, state);
+                    }
+                } else {
+                    state = CompiledFSM.power(repeat.body.map(machine), repeat.count)[state];
+                }
             }
+        }
+        return state;
+    }
 
-            return fsm;
+    // Tek durumla count kez yürümek mi, |Q| boyutlu eşlemeyi kurup log(count) kez kare almak mı
+    private static boolean unrollIsCheaper(CompiledFSM machine, Repeat repeat) {
+        long states = machine.getStateCount();
+        long bits = 64 - Long.numberOfLeadingZeros(repeat.count);
+        long unrolled = repeat.body.length > 0 && repeat.count > Long.MAX_VALUE / repeat.body.length
+                ? Long.MAX_VALUE : repeat.body.length * repeat.count;
+        return unrolled <= states * (Math.min(repeat.body.length, Integer.MAX_VALUE) + 2 * bits);
+    }
+
+    private int[] map(CompiledFSM machine) {
+        int[] map = new int[machine.getStateCount()];
+        for (int q = 0; q < map.length; q++) {
+            map[q] = q; // birim eşleme
+        }
+        for (Object item : items) {
+            int[] step = item instanceof String
+                    ? machine.transitionMap((String) item)
+                    : CompiledFSM.power(((Repeat) item).body.map(machine), ((Repeat) item).count);
+            map = CompiledFSM.compose(map, step);
+        }
+        return map;
+    }
+}
+
+// Bilinen komut adları tek yerde; STATS sayaçları ve LOAD önbelleğinin tanım listesi buradan okunur
+enum CommandName {
+    SYMBOLS, STATES, INITIAL_STATE, FINAL_STATES, TRANSITIONS,
+    PRINT, COMPILE, LOAD, EXECUTE, EXECUTE_VERDICT, EXECUTE_BATCH, EXECUTE_FILE,
+    MINIMIZE, MODE, STORAGE, STATS, CACHE, MEMO, USE, LIST, DROP, CLEAR, LOG, EXIT;
+
+    // Makineyi tanımlayan komutlar; sadece bunlardan oluşan dosyalar önbelleğe alınır
+    static final Set<String> DEFINITIONS = Set.copyOf(
+            texts(EnumSet.of(SYMBOLS, STATES, INITIAL_STATE, FINAL_STATES, TRANSITIONS, MODE, CLEAR)));
+    // STATS'ta kendi sayacı olanlar (STATS ve EXIT ölçülmez)
+    static final List<String> TIMED = texts(EnumSet.complementOf(EnumSet.of(STATS, EXIT)));
+
+    final String text = name().replace('_', '-');
+
+    private static List<String> texts(Set<CommandName> names) {
+        List<String> texts = new ArrayList<>();
+        for (CommandName name : names) texts.add(name.text);
+        return Collections.unmodifiableList(texts);
+    }
+}
+
+// Ayrıştırılmış tek komut: tokenlar, bittiği satır ve nasıl bittiği
+class ParsedCommand {
+    private final List<String> tokens;
+    private final int line;
+    private final CommandLexer.End end;
+    private String text;
+
+    ParsedCommand(List<String> tokens, int line, CommandLexer.End end) {
+        this.tokens = tokens;
+        this.line = line;
+        this.end = end;
+    }
+
+    List<String> getTokens() {
+        return tokens;
+    }
+
+    String getName() {
+        return tokens.isEmpty() ? "" : tokens.get(0).toUpperCase();
+    }
+
+    int getLine() {
+        return line;
+    }
+
+    CommandLexer.End getEnd() {
+        return end;
+    }
+
+    boolean isTerminated() {
+        return end == CommandLexer.End.SEMICOLON;
+    }
+
+    // LOAD çıktısında komutun kendisi böyle yazılır
+    String getText() {
+        if (text == null) {
+            text = String.join(" ", tokens) + (isTerminated() ? ";" : "");
         }
+        return text;
+    }
+}
+
+// Tek geçişli komut ayrıştırıcı; REPL, LOAD ve başlangıç dosyası aynı kuralları kullanır.
+// Bir komut sadece ';' ile biter; komut adları argüman olarak geçebilir (CACHE CLEAR, USE LIST gibi).
+// Dosya modunda ';' görülen satırın sonu da komutu bitirir, böylece ';' sonrası açıklamalar ayrı komut olur.
+// Başlangıç dosyasında ise REPL'deki gibi satırın ';' sonrası kısmı atlanır.
+class CommandLexer {
+    enum Mode { REPL, SCRIPT, STARTUP }
+
+    enum End { SEMICOLON, LINE, EOF }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader in;
+    private final Mode mode;
+    private final char[] buffer;
+    private int position;
+    private int limit;
+    private int line = 1;
+    private boolean semicolonOnLine;
+    private boolean lastWasNewline;
+    private boolean skipLine; // STARTUP: ';' sonrası satır sonuna kadar okunmaz
+
+    // şu anki kelime: buffer[wordStart..], tampon yenilenirse baştaki kısmı carry'de
+    private int wordStart = -1;
+    private final StringBuilder carry = new StringBuilder();
+
+    // şu anki komut
+    private List<String> tokens;
+    private int tokenLine;
+
+    CommandLexer(Reader in, Mode mode) {
+        this.in = in;
+        this.mode = mode;
+        this.buffer = new char[BUFFER_SIZE];
+    }
 
-        public static class SerializablePair<F, S> implements Serializable {
-            private static final long serialVersionUID = 1L;
+    // Bellekteki parçayı kopyalamadan okur (LOAD boru hattı)
+    CommandLexer(char[] chars, int length, Mode mode) {
+        this.in = null;
+        this.mode = mode;
+        this.buffer = chars;
+        this.limit = length;
+    }
 
-            private final F first;
-            private final S second;
+    // REPL satırı: satırın kendi dizisi üzerinden, 64K tampon ayırmadan
+    static List<ParsedCommand> parse(String text) {
+        char[] chars = text.toCharArray();
+        CommandLexer lexer = new CommandLexer(chars, chars.length, Mode.REPL);
+        List<ParsedCommand> commands = new ArrayList<>();
+        try {
+            for (ParsedCommand command; (command = lexer.next()) != null; ) {
+                commands.add(command);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return commands;
+    }
 
-            public SerializablePair(F first, S second) {
-                this.first = first;
-                this.second = second;
+    // Sadece boşluktan bölme, komut ayırma yok
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            if (i == text.length() || isWhitespace(text.charAt(i))) {
+                if (start >= 0) tokens.add(text.substring(start, i));
+                start = -1;
+            } else if (start < 0) {
+                start = i;
             }
+        }
+        return tokens;
+    }
+
+    // regex \s ile aynı karakterler
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+    }
 
-            public F getFirst() {
-                return first;
+    // Dosyadaki satır sayısı (EOF mesajları için)
+    int getLineCount() {
+        return lastWasNewline ? line - 1 : line;
+    }
+
+    // Şimdiye kadar okunan satır sonu sayısı
+    int getNewlineCount() {
+        return line - 1;
+    }
+
+    ParsedCommand next() throws IOException {
+        tokens = new ArrayList<>();
+        tokenLine = line;
+
+        while (true) {
+            if (position == limit && !fill()) {
+                endWord();
+                return tokens.isEmpty() ? null : new ParsedCommand(tokens, tokenLine, End.EOF);
+            }
+            char c = buffer[position++];
+            lastWasNewline = c == '\n';
+            if (skipLine) {
+                if (c == '\n') {
+                    line++;
+                    skipLine = false;
+                }
+                continue;
             }
+            if (c == ';') {
+                endWord();
+                semicolonOnLine = true;
+                skipLine = mode == Mode.STARTUP;
+                return new ParsedCommand(tokens, line, End.SEMICOLON);
+            }
+            if (isWhitespace(c)) {
+                endWord();
+                if (c == '\n') {
+                    line++;
+                    boolean cut = mode == Mode.SCRIPT && semicolonOnLine && !tokens.isEmpty();
+                    semicolonOnLine = false;
+                    if (cut) {
+                        return new ParsedCommand(tokens, line - 1, End.LINE);
+                    }
+                }
+                continue;
+            }
+            if (wordStart < 0) wordStart = position - 1;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (wordStart >= 0) {
+            carry.append(buffer, wordStart, limit - wordStart);
+            wordStart = 0;
+        }
+        int read = in == null ? -1 : in.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(read, 0);
+        if (read <= 0 && wordStart >= 0) {
+            wordStart = -1; // kelimenin tamamı carry'de
+            return false;
+        }
+        return read > 0;
+    }
+
+    // Biten kelimeyi komuta ekler
+    private void endWord() {
+        String word;
+        if (carry.length() > 0) {
+            if (wordStart >= 0) carry.append(buffer, wordStart, position - 1 - wordStart);
+            word = carry.toString();
+            carry.setLength(0);
+        } else if (wordStart >= 0) {
+            word = new String(buffer, wordStart, position - 1 - wordStart);
+        } else {
+            return;
+        }
+        wordStart = -1;
+        tokens.add(word);
+        tokenLine = line;
+    }
+}
 
-            public S getSecond() {
-                return second;
+// LOAD sırasında konsol çıktısı: satır başına bir write yerine parça sonunda toplu yazılır.
+// stderr'e yazmadan önce tampon boşaltılır, iki akışın sırası değişmez. --serve oturumlarının
+// çıktısı zaten tamponlu olduğundan orada ve iç içe LOAD'da kurulmaz.
+final class ConsoleBuffer implements Closeable {
+    private static final int SIZE = 1 << 16;
+    private static ConsoleBuffer active;
+
+    private final PrintStream out;
+    private final PrintStream err;
+    private final PrintStream buffered;
+
+    private ConsoleBuffer(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+        this.buffered = new PrintStream(new BufferedOutputStream(out, SIZE), false, out.charset());
+        System.setOut(buffered);
+        System.setErr(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                buffered.flush();
+                err.write(b);
             }
 
             @Override
-            public boolean equals(Object o) {
-                if (this == o) return true;
-                if (!(o instanceof SerializablePair)) return false;
-                SerializablePair<?, ?> pair = (SerializablePair<?, ?>) o;
-                return Objects.equals(first, pair.first) && Objects.equals(second, pair.second);
+            public void write(byte[] bytes, int offset, int length) {
+                buffered.flush();
+                err.write(bytes, offset, length);
             }
 
             @Override
-            public int hashCode() {
-                return Objects.hash(first, second);
+            public void flush() {
+                err.flush();
+            }
+        }, true, err.charset()));
+    }
+
+    // Konsolda tamponu kurar; gerekmiyorsa null
+    static synchronized ConsoleBuffer open() {
+        if (active != null || System.out instanceof SessionOutput) return null;
+        active = new ConsoleBuffer(System.out, System.err);
+        return active;
+    }
+
+    void flush() {
+        buffered.flush();
+    }
+
+    @Override
+    public void close() {
+        buffered.flush();
+        System.setOut(out);
+        System.setErr(err);
+        synchronized (ConsoleBuffer.class) {
+            active = null;
+        }
+    }
+}
+
+// LOAD boru hattı: okuyucu thread büyük bloklar okur ve ';' içeren bir satırın sonundan keser,
+// parçalar havuzda paralel ayrıştırılır, çağıran thread komutları dosya sırasıyla uygular.
+// Böyle bir satır sonunda ayrıştırıcı her zaman boş bir komutla başlar, parçalar birbirinden bağımsızdır.
+class ScriptPipeline implements Closeable {
+    static final int BLOCK_SIZE = 1 << 22;
+    private static final int IN_FLIGHT = Math.max(2, 2 * Runtime.getRuntime().availableProcessors());
+    private static final Future<Chunk> END = CompletableFuture.completedFuture(null);
+
+    // Ayrıştırılmış parça; satır numaraları parçanın başına göredir
+    static final class Chunk {
+        final List<ParsedCommand> commands;
+        final int newlines;
+        final int lineCount;
+
+        Chunk(List<ParsedCommand> commands, int newlines, int lineCount) {
+            this.commands = commands;
+            this.newlines = newlines;
+            this.lineCount = lineCount;
+        }
+    }
+
+    private final Reader in;
+    private final BlockingQueue<Future<Chunk>> queue = new ArrayBlockingQueue<>(IN_FLIGHT);
+    private final Thread reader;
+    private volatile boolean closed;
+
+    ScriptPipeline(Reader in) {
+        this.in = in;
+        PrintStream sink = SessionOutput.current();
+        this.reader = new Thread(() -> SessionOutput.runWith(sink, this::readBlocks), "fsm-load-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    // Sıradaki parça, dosya bittiyse null
+    Chunk next() throws IOException, InterruptedException {
+        try {
+            return queue.take().get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    private void readBlocks() {
+        try {
+            char[] block = new char[BLOCK_SIZE];
+            int length = 0;
+            while (!closed) {
+                int read = in.read(block, length, block.length - length);
+                if (read < 0) {
+                    publish(block, length);
+                    break;
+                }
+                length += read;
+                if (length < block.length) continue;
+
+                int cut = boundary(block, length);
+                // tek bir komut bloktan büyükse blok büyütülür
+                char[] next = new char[cut < 0 ? block.length * 2 : BLOCK_SIZE + length - cut];
+                if (cut < 0) {
+                    System.arraycopy(block, 0, next, 0, length);
+                } else {
+                    System.arraycopy(block, cut, next, 0, length - cut);
+                    publish(block, cut);
+                    length -= cut;
+                }
+                block = next;
+            }
+            queue.put(END);
+        } catch (IOException e) {
+            queue.offer(CompletableFuture.failedFuture(e));
+        } catch (InterruptedException e) {
+            // close() çağrıldı
+        }
+    }
+
+    private void publish(char[] block, int length) throws InterruptedException {
+        queue.put(ForkJoinPool.commonPool().submit(SessionOutput.inherit(() -> parse(block, length))));
+    }
+
+    // ';' içeren son satırın sonundaki '\n' sonrası, yoksa -1
+    static int boundary(char[] chars, int length) {
+        int candidate = -1;
+        for (int i = length - 1; i >= 0; i--) {
+            char c = chars[i];
+            if (c == '\n') {
+                candidate = i;
+            } else if (c == ';' && candidate >= 0) {
+                return candidate + 1;
             }
         }
+        return -1;
+    }
+
+    static Chunk parse(char[] chars, int length) throws IOException {
+        CommandLexer lexer = new CommandLexer(chars, length, CommandLexer.Mode.SCRIPT);
+        List<ParsedCommand> commands = new ArrayList<>();
+        for (ParsedCommand command; (command = lexer.next()) != null; ) {
+            command.getText(); // yansıtılacak metin de uygulayıcıdan önce hazırlanır
+            commands.add(command);
+        }
+        return new Chunk(commands, lexer.getNewlineCount(), lexer.getLineCount());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        reader.interrupt();
+        queue.clear();
     }
 }
 
 class CommandInterpreter {
     private boolean running = true;
     private CommandProcessor processor;
+    // konsol oturumu günlük dosyasının sahibidir; ağ oturumları onu kapatmaz
+    private final boolean console;
 
     public CommandInterpreter() {
-        this.processor=new CommandProcessor();
+        this(true);
+    }
+
+    CommandInterpreter(boolean console) {
+        this.processor=new CommandProcessor(!console);
+        this.console = console;
     }
 
     private void printPrompt() {
         System.out.print("? ");
     }
     public void startREPL() {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+        startREPL(new BufferedReader(new InputStreamReader(System.in)));
+    }
+
+    // İstemci komutları art arda gönderirse cevaplar okunacak girdi bitince toplu yazılır
+    void startREPL(BufferedReader reader) {
         StringBuilder buffer = new StringBuilder();
         int lineNumber = 0;
         printPrompt();
@@ -918,11 +4655,15 @@ class CommandInterpreter {
                     buffer.append(line).append(" ");
                     if (running) printPrompt();
                 }
+                if (!reader.ready()) {
+                    System.out.flush();
+                }
             }
         } catch (IOException e) {
             System.err.println("I/O error: " + e.getMessage());
         } finally {
-            if (Logger.isLoggingEnabled()) {
+            System.out.flush();
+            if (console && Logger.isLoggingEnabled()) {
                 Logger.stopLogging();
             }
         }
@@ -931,171 +4672,81 @@ class CommandInterpreter {
     public void processLine(String line) throws InvalidCommandException {
         if (line == null || line.isEmpty()) return;
 
-        // Komut adlarını içeren bir liste
-        List<String> commandNames = Arrays.asList("SYMBOLS", "STATES", "INITIAL-STATE", "FINAL-STATES",
-                "TRANSITIONS", "PRINT", "COMPILE", "LOAD", "EXECUTE",
-                "CLEAR", "LOG", "EXIT");
-
-        // Satırı tokenlara ayır
-        List<String> tokens = tokenizeCommand(line);
-        if (tokens == null || tokens.isEmpty()) return;
-
-        // Tüm olası komut başlangıçlarını bul
-        List<Integer> commandStartIndices = new ArrayList<>();
-        commandStartIndices.add(0); // İlk komut her zaman 0. indeksten başlar
-
-        for (int i = 1; i < tokens.size(); i++) {
-            if (commandNames.contains(tokens.get(i).toUpperCase())) {
-                commandStartIndices.add(i);
-            }
-        }
-
-        // Eğer komut başlangıç indeksleri listesi boşsa, return
-        if (commandStartIndices.isEmpty()) return;
-
-        // Her komutu ayrı ayrı işle
-        for (int i = 0; i < commandStartIndices.size(); i++) {
-            int startIndex = commandStartIndices.get(i);
-            // Dizin sınırları kontrolü
-            if (startIndex >= tokens.size()) continue;
+        // Satırdaki komutlar ';' ile ayrılır
+        for (ParsedCommand command : CommandLexer.parse(line)) {
+            List<String> tokens = command.getTokens();
+            if (tokens.isEmpty()) continue;
 
-            int endIndex = (i < commandStartIndices.size() - 1) ?
-                    commandStartIndices.get(i + 1) : tokens.size();
-
-            // Dizin sınırları kontrolü
-            if (endIndex > tokens.size()) endIndex = tokens.size();
-
-            List<String> command = tokens.subList(startIndex, endIndex);
-            if (command.isEmpty()) continue;
-
-            String cmd = command.get(0).toUpperCase();
+            String cmd = command.getName();
 
             // EXIT komutu için özel işleme
             if (cmd.equals("EXIT")) {
-                if (Logger.isLoggingEnabled()) {
-                    Logger.stopLogging();
-                }
-                handleExitCommand();
+                exit();
                 break;
             }
-            // TRANSITIONS komutu için özel işleme
-            else if (cmd.equals("TRANSITIONS")) {
-                List<String> transitionTokens = tokenizeTransitionCommand(line.substring(line.indexOf("TRANSITIONS")));
-                if (transitionTokens != null && !transitionTokens.isEmpty()) {
-                    String result = processor.processCommand(transitionTokens);
-                    if (result != null) {
-                        System.out.println(result);
-                    }
-                }
+            // Parametresiz LOAD yok sayılır
+            if (cmd.equals("LOAD") && tokens.size() == 1) {
+                continue;
             }
-            // LOAD komutu için özel işleme
-            else if (cmd.equals("LOAD")) {
-                // LOAD komutları için özel işleme
-                if (command.size() > 1) {
-                    // Geçerli LOAD komutu (parametrelerle birlikte)
-                    String result = processor.processCommand(command);
-                    if (result != null) {
-                        System.out.println(result);
-                    }
-                }
+            String result = processor.processCommand(tokens);
+            if (result != null) {
+                System.out.println(result);
             }
-            // Diğer tüm komutlar için standart işleme
-            else {
-                String result = processor.processCommand(command);
-                if (result != null) {
-                    System.out.println(result);
-                }
+            if (processor.takeExitRequest()) {
+                exit();
+                break;
             }
         }
     }
 
-    // Normal komutlar için tokenize metodu
-    private List<String> tokenizeCommand(String input) {
-        if (input == null || input.trim().isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        List<String> tokens = new ArrayList<>();
-        for (String tok : input.trim().split("\\s+")) {
-            if (!tok.isEmpty()) tokens.add(tok);
-        }
-        return tokens;
-    }
-
-    // TRANSITIONS komutu için özel tokenize metodu
-    private List<String> tokenizeTransitionCommand(String input) {
-        if (input == null || input.trim().isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        List<String> tokens = new ArrayList<>();
-        String[] parts = input.trim().split("\\s+");
-
-        if (parts.length > 0) {
-            tokens.add(parts[0]); // TRANSITIONS komutunu ekle
-
-            // Tüm geçişleri virgülle ayrılmış kabul et
-            StringBuilder transitions = new StringBuilder();
-            for (int i = 1; i < parts.length; i++) {
-                transitions.append(parts[i]).append(" ");
-            }
-
-            // Virgülle ayrılmış geçişleri işle
-            String transitionsStr = transitions.toString().trim();
-            if (!transitionsStr.isEmpty()) {
-                tokens.add(transitionsStr); // Transitions parametresini tek parça olarak ekle
-            }
+    private void exit() {
+        if (console && Logger.isLoggingEnabled()) {
+            Logger.stopLogging();
         }
-
-        return tokens;
+        handleExitCommand();
     }
 
     void handleExitCommand() {
         System.out.println("TERMINATED BY USER");
         running = false;
     }
+    // Başlangıç dosyası: REPL kuralları, komut ';' ile biter ve satırın geri kalanı atlanır.
+    // ';' içermeyen her satır için uyarı yazılır, EXIT oturumu kapatır
     void handleLoadCommand(String filename) {
-        int lineNumber = 0;
-
-        try (BufferedReader file = new BufferedReader(new FileReader(filename))) {
-            String line;
-            StringBuilder buf = new StringBuilder();
+        try (Reader file = new FileReader(filename)) {
+            CommandLexer lexer = new CommandLexer(file, CommandLexer.Mode.STARTUP);
+            int nextLine = 1;
+            for (ParsedCommand command; running && (command = lexer.next()) != null; ) {
+                if (!command.isTerminated()) break; // dosya sonunda kapanmamış komut çalıştırılmaz
+                for (; nextLine < command.getLine(); nextLine++) {
+                    System.out.println("Line " + nextLine + ": semicolon expected");
+                }
+                nextLine = command.getLine() + 1;
 
-            while ((line = file.readLine()) != null) {
-                lineNumber++;
-                buf.append(line).append(" ");
+                // Önce okunan komutu yazdır
+                System.out.println(command.getText());
 
-                if (line.contains(";")) {
-                    String fullLine = buf.toString().trim();
-                    int semicolonIndex = fullLine.indexOf(";");
-                    String command = fullLine.substring(0, semicolonIndex).trim();
-                    buf.setLength(0);
-
-                    // Önce LOAD komutunun okuduğu komutu yazdır
-                    System.out.println(command + ";");
-
-                    // Sonra komut satırını işle ve çıktısını yazdır
-                    List<String> tokens = tokenizeCommand(command);
-                    if (!tokens.isEmpty()) {
-                        String cmd = tokens.get(0).toUpperCase();
-                        if (cmd.equals("EXIT")) {
-                            handleExitCommand();
-                        } else {
-                            try {
-                                String result = processor.processCommand(tokens);
-                                if (result != null) {
-                                    System.out.println(result);
-                                }
-                            } catch (InvalidCommandException e) {
-                                System.err.println("Error in command: " + e.getMessage());
-                            }
-                        }
+                List<String> tokens = command.getTokens();
+                if (tokens.isEmpty()) continue;
+                if (command.getName().equals("EXIT")) {
+                    exit();
+                    break;
+                }
+                try {
+                    String result = processor.processCommand(tokens);
+                    if (result != null) {
+                        System.out.println(result);
                     }
+                } catch (InvalidCommandException e) {
+                    System.err.println("Error in command: " + e.getMessage());
                 }
-                else {
-                    System.out.println("Line " + lineNumber + ": semicolon expected");
+                if (processor.takeExitRequest()) {
+                    exit();
                 }
             }
+            for (; running && nextLine <= lexer.getLineCount(); nextLine++) {
+                System.out.println("Line " + nextLine + ": semicolon expected");
+            }
         } catch (IOException e) {
             System.err.println("Error loading file: " + e.getMessage());
         }
@@ -1108,236 +4759,384 @@ class CommandProcessor {
     private FSMCommandHandler handler;
     private FileManager fileManager;
     private Serializer serializer;
+    // USE ile seçilen isimli makine; null ise oturumun özel makinesi
+    private MachineRegistry.Entry attached;
+    private long attachedVersion;
+    private int editDepth; // LOAD içindeki komutlar dış düzenlemenin parçasıdır
+    private boolean exitRequested; // yüklenen dosyada EXIT görüldü
+    private ExecutionCache memo; // MEMO: makine değişse de ayarlar ve sayaçlar oturumda kalır
+    // --serve oturumu: süreç genelindeki ayarları (LOG, CACHE, STATS) değiştiremez
+    private final boolean networkSession;
 
     CommandProcessor() {
+        this(false);
+    }
+
+    CommandProcessor(boolean networkSession) {
+        this.networkSession = networkSession;
         this.fsm         = new FSM();
         this.handler     = new FSMCommandHandler(fsm);
         this.fileManager = new FileManager(fsm);
         this.serializer  = new Serializer();
     }
-    private void handleLoadFromTextFile(String filename) throws InvalidCommandException {
-        List<String> errorMessages = new ArrayList<>();
+    private void replaceMachine(FSM loaded) {
+        this.fsm = loaded;
+        this.handler = new FSMCommandHandler(fsm);
+        this.handler.setMemo(memo);
+        this.fileManager = new FileManager(fsm);
+    }
 
-        try (BufferedReader file = new BufferedReader(new FileReader(filename))) {
-            String line;
-            int lineNumber = 0;
-            StringBuilder multiLineCommand = new StringBuilder();
-            boolean inMultilineCommand = false;
+    // Yayınlanmış daha yeni bir sürüm varsa ona geçer; isim silindiyse makine oturumda kalır
+    private void refresh() {
+        MachineRegistry.Version version = attached.current();
+        if (version == null) {
+            attached = null;
+        } else if (version.number != attachedVersion) {
+            replaceMachine(version.snapshot.instantiate());
+            attachedVersion = version.number;
+        }
+    }
 
-            while ((line = file.readLine()) != null) {
-                lineNumber++;
-                line = line.trim();
+    // Düzenleme son sürümün özel kopyasında yapılır, hata olsa da ulaşılan hal yayınlanır
+    private String runEdit(List<String> tokens) throws InvalidCommandException {
+        MachineRegistry.Entry entry = attached;
+        entry.writer.lock();
+        editDepth++;
+        try {
+            refresh();
+            return runCommand(tokens);
+        } finally {
+            editDepth--;
+            if (entry.current() != null) {
+                attachedVersion = entry.publish(fsm.snapshot()).number;
+            }
+            entry.writer.unlock();
+        }
+    }
 
-                // Boş satırları atla
-                if (line.isEmpty()) {
-                    continue;
-                }
+    // USE | USE <isim>: isim yoksa oturumun şu anki makinesiyle oluşturulur
+    private String handleUseCommand(List<String> tokens) throws InvalidCommandException {
+        if (tokens.size() == 1) {
+            return attached == null ? "USING PRIVATE MACHINE" : "USING " + attached.name + " v" + attachedVersion;
+        }
+        if (tokens.size() != 2) {
+            throw new InvalidCommandException("USE requires a machine name");
+        }
+        String name = tokens.get(1).toUpperCase();
+        boolean created = !MachineRegistry.contains(name);
+        attached = MachineRegistry.attach(name, fsm);
+        attachedVersion = 0;
+        refresh();
+        return (created ? "CREATED " : "USING ") + name + " v" + attachedVersion;
+    }
 
-                // Çok satırlı komut işleme
-                if (inMultilineCommand) {
-                    multiLineCommand.append(" ").append(line);
-                    if (line.contains(";")) {
-                        inMultilineCommand = false;
-                        processFileCommand(multiLineCommand.toString(), lineNumber, errorMessages);
-                        multiLineCommand.setLength(0);
-                    }
-                    continue;
-                }
+    private String handleDropCommand(List<String> tokens) throws InvalidCommandException {
+        if (tokens.size() != 2) {
+            throw new InvalidCommandException("DROP requires a machine name");
+        }
+        String name = tokens.get(1).toUpperCase();
+        if (!MachineRegistry.drop(name)) {
+            return "Error: no machine named " + name;
+        }
+        if (attached != null && attached.name.equals(name)) {
+            attached = null;
+        }
+        return "DROPPED " + name;
+    }
 
-                // Noktalı virgül içermeyen satırları çok satırlı komut başlangıcı olarak işle
-                if (!line.contains(";")) {
-                    inMultilineCommand = true;
-                    multiLineCommand.append(line);
-                    continue;
-                }
+    // .fs: aynı dosya daha önce yüklendiyse paylaşılan görüntüden kopyalamadan kurulur
+    private FSM loadCompiledFile(String filename) throws FileOperationException, InvalidFileNameException,
+            InvalidFilePathException, InvalidFileFormatException {
+        FSMSnapshot cached = MachineCache.get(new File(filename), serializer);
+        if (cached != null) {
+            return cached.instantiate();
+        }
+        FSM loaded = serializer.deserializeFSM(filename);
+        MachineCache.put(new File(filename), loaded, serializer);
+        return loaded;
+    }
 
-                // Normal komut işleme (satırda noktalı virgül var)
-                processFileCommand(line, lineNumber, errorMessages);
+    // Komut dosyası: sadece varsayılan ayarlı boş makineye yüklenirken önbellek kullanılır,
+    // isabette komutlar tekrar yazdırılmaz
+    private String loadScript(String filename) throws InvalidCommandException {
+        boolean empty = fsm.getSymbolCount() == 0 && fsm.getStateCount() == 0 && fsm.hasDefaultSettings();
+        if (empty) {
+            FSMSnapshot cached = MachineCache.get(new File(filename), serializer);
+            if (cached != null) {
+                replaceMachine(cached.instantiate());
+                return "LOADED " + filename + " FROM CACHE";
             }
+        }
+        boolean definitionsOnly = handleLoadFromTextFile(filename);
+        if (empty && definitionsOnly) {
+            MachineCache.put(new File(filename), fsm, serializer);
+        }
+        return null;
+    }
 
-            // Dosya bitti ama hala çok satırlı komut varsa
-            if (inMultilineCommand && multiLineCommand.length() > 0) {
-                String errorMsg = "Line " + lineNumber + ": unclosed command, semicolon missing";
-                System.out.println(errorMsg);
-                errorMessages.add(errorMsg);
-                // Yine de komutu işlemeye çalış
-                multiLineCommand.append(";"); // Eksik noktalı virgülü ekle
-                processFileCommand(multiLineCommand.toString(), lineNumber, errorMessages);
-            }
+    // Yüklenen dosyadaki EXIT'i bir kez bildirir
+    boolean takeExitRequest() {
+        boolean requested = exitRequested;
+        exitRequested = false;
+        return requested;
+    }
 
+    // Dosya sadece tanım komutlarından oluşuyor ve hepsi hatasız çalıştıysa true
+    private boolean handleLoadFromTextFile(String filename) throws InvalidCommandException {
+        Metrics.recordBytes(new File(filename).length());
+        boolean definitionsOnly = true;
+
+        try (Reader file = new FileReader(filename);
+             ScriptPipeline pipeline = new ScriptPipeline(file);
+             ConsoleBuffer console = ConsoleBuffer.open()) {
+            int lineOffset = 0; // önceki parçalardaki satır sayısı
+            for (ScriptPipeline.Chunk chunk; !exitRequested && (chunk = pipeline.next()) != null; ) {
+                for (ParsedCommand command : chunk.commands) {
+                    if (exitRequested) break;
+                    if (command.getEnd() == CommandLexer.End.EOF) {
+                        // Dosya bitti ama komut kapanmadı: uyar ve yine de işle
+                        System.out.println("Line " + (lineOffset + chunk.lineCount) + ": unclosed command, semicolon missing");
+                        command = new ParsedCommand(command.getTokens(), command.getLine(), CommandLexer.End.SEMICOLON);
+                        definitionsOnly = false;
+                    }
+                    boolean ok = processFileCommand(command, lineOffset);
+                    definitionsOnly &= ok && (command.getTokens().isEmpty()
+                            || MachineCache.DEFINITION_COMMANDS.contains(command.getName()));
+                }
+                if (console != null) console.flush(); // yansıtma ve sonuçlar parça başına bir kez yazılır
+                lineOffset += chunk.newlines;
+            }
         } catch (IOException e) {
             throw new InvalidCommandException("Error loading file: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InvalidCommandException("LOAD interrupted: " + filename);
         }
+        return definitionsOnly;
     }
 
-    // Dosyadan okunan bir komut satırını işleyen yardımcı metot
-    private void processFileCommand(String commandLine, int lineNumber, List<String> errorMessages) {
-        // Geçerli komut anahtar kelimelerini belirle (büyük/küçük harf duyarsız)
-        Set<String> commandKeywords = new HashSet<>(Arrays.asList(
-                "SYMBOLS", "STATES", "INITIAL-STATE", "FINAL-STATES", "TRANSITIONS",
-                "PRINT", "COMPILE", "LOAD", "EXECUTE", "CLEAR", "LOG", "EXIT"
-        ));
+    // Dosyadan okunan tek komutu yazdırır ve işler, hatalar satır numarasıyla yazılır; hata yoksa true
+    private boolean processFileCommand(ParsedCommand command, int lineOffset) {
+        int line = lineOffset + command.getLine();
+        List<String> tokens = command.getTokens();
+        System.out.println(command.getText()); // Sadece komutu yazdır
 
-        // Komutları ayrıştır
-        List<String> commands = splitIntoSeparateCommands(commandLine, commandKeywords);
+        boolean ok = command.isTerminated();
+        if (!ok) {
+            System.out.println("Line " + line + ": semicolon missing in command-->" + command.getText());
+        }
+        if (tokens.isEmpty()) return ok;
 
-        // Her komutu ayrı ayrı işle
-        for (String command : commands) {
-            command = command.trim();
-            if (command.isEmpty()) continue;
+        // EXIT dosyanın kalanını atlar, oturumu CommandInterpreter kapatır
+        if (command.getName().equals("EXIT")) {
+            exitRequested = true;
+            return false;
+        }
 
-            boolean hasValidSemicolon = command.endsWith(";");
-            String commandWithoutSemi = hasValidSemicolon ?
-                    command.substring(0, command.length() - 1).trim() : command.trim();
+        // LOAD komutları için nested kontrolü
+        if (command.getName().equals("LOAD") && tokens.size() == 1) return false;
 
-            System.out.println(command); // Sadece komutu yazdır
+        try {
+            String result = processCommand(tokens);
+            if (result != null) System.out.println(result);
+            return ok && (result == null || !result.startsWith("Error"));
+        } catch (Exception e) {
+            System.out.println("Line " + line + ": " + e.getMessage());
+            return false;
+        }
+    }
 
-            if (!hasValidSemicolon) {
-                String errorMsg = "Line " + lineNumber + ": semicolon missing in command-->" + command;
-                System.out.println(errorMsg);
-                errorMessages.add(errorMsg);
+    // CACHE | CACHE ON | CACHE OFF | CACHE CLEAR | CACHE SIZE <MB> | CACHE DIR <dizin> | CACHE DIR OFF
+    private String handleCacheCommand(List<String> tokens) throws InvalidCommandException {
+        if (tokens.size() == 1) {
+            return MachineCache.report();
+        }
+        String option = tokens.get(1).toUpperCase();
+        if (tokens.size() == 2) {
+            switch (option) {
+                case "ON":
+                    MachineCache.setEnabled(true);
+                    return MachineCache.report();
+                case "OFF":
+                    MachineCache.setEnabled(false);
+                    return MachineCache.report();
+                case "CLEAR":
+                    MachineCache.clear();
+                    return MachineCache.report();
+                default:
+                    break;
             }
-
-            // Boş komut kontrolü
-            if (commandWithoutSemi.isEmpty()) continue;
-
+        }
+        if (tokens.size() == 3 && option.equals("SIZE")) {
             try {
-                List<String> tokens = tokenizeCommand(commandWithoutSemi);
-                if (tokens.isEmpty()) continue;
-
-                String cmdType = tokens.get(0).toUpperCase();
-
-                // TRANSITIONS komutu için özel işleme
-                if (cmdType.equals("TRANSITIONS")) {
-                    List<String> transitionTokens = tokenizeTransitionCommand(commandWithoutSemi);
-                    String result = processCommand(transitionTokens);
-                    if (result != null) System.out.println(result); // Sonucu doğrudan yazdır
-                }
-                // LOAD komutları için nested kontrolü
-                if (cmdType.equals("LOAD")) {
-                    // LOAD komutları için özel işleme
-                    if (tokens.size() > 1) {
-                        // Geçerli LOAD komutu (parametrelerle birlikte)
-                        String result = processCommand(tokens);
-                        if (result != null) System.out.println(result);
-                    }
-                } else {
-                    // LOAD dışındaki tüm komutlar için standart işleme
-                    String result = processCommand(tokens);
-                    if (result != null) System.out.println(result);
+                long megabytes = Long.parseLong(tokens.get(2));
+                if (megabytes >= 0) {
+                    MachineCache.setBudgetMegabytes(megabytes);
+                    return MachineCache.report();
                 }
-            } catch (Exception e) {
-                String errorMsg = "Line " + lineNumber + ": " + e.getMessage();
-                System.out.println(errorMsg);
-                errorMessages.add(errorMsg);
+            } catch (NumberFormatException e) {
+                // aşağıdaki hata mesajına düş
+            }
+            throw new InvalidCommandException("CACHE SIZE requires a number of megabytes");
+        }
+        if (tokens.size() == 3 && option.equals("DIR")) {
+            if (tokens.get(2).equalsIgnoreCase("OFF")) {
+                MachineCache.setDiskDirectory(null);
+                return MachineCache.report();
+            }
+            File directory = new File(tokens.get(2));
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new InvalidCommandException("Cannot create cache directory: " + tokens.get(2));
             }
+            MachineCache.setDiskDirectory(directory);
+            return MachineCache.report();
         }
+        throw new InvalidCommandException("CACHE expects ON, OFF, CLEAR, SIZE <MB> or DIR <directory|OFF>");
     }
 
-    // Bir satırı ayrı komutlara bölen yardımcı metot
-    private List<String> splitIntoSeparateCommands(String line, Set<String> commandKeywords) {
-        List<String> commands = new ArrayList<>();
-        StringBuilder currentCommand = new StringBuilder();
-        String[] tokens = line.split("\\s+");
-        boolean inCommand = false;
-
-        for (int i = 0; i < tokens.length; i++) {
-            String token = tokens[i].trim();
-            if (token.isEmpty()) continue;
-
-            // Noktalı virgül içeren token kontrolü
-            if (token.contains(";")) {
-                // Noktalı virgülü ayır
-                int semicolonIndex = token.indexOf(';');
-                if (semicolonIndex > 0) {
-                    // Noktalı virgülden önceki kısmı mevcut komuta ekle
-                    currentCommand.append(" ").append(token.substring(0, semicolonIndex));
-                }
-
-                // Mevcut komutu tamamla
-                commands.add(currentCommand.toString().trim() + ";");
-                currentCommand = new StringBuilder();
-                inCommand = false;
-
-                // Noktalı virgülden sonraki kısmı kontrol et
-                if (semicolonIndex < token.length() - 1) {
-                    String remainder = token.substring(semicolonIndex + 1).trim();
-                    if (!remainder.isEmpty()) {
-                        currentCommand.append(remainder);
-                        inCommand = true;
+    // MEMO | MEMO ON | MEMO OFF | MEMO CLEAR | MEMO SIZE <girdi> <MB>
+    private String handleMemoCommand(List<String> tokens) throws InvalidCommandException {
+        if (tokens.size() == 2) {
+            switch (tokens.get(1).toUpperCase()) {
+                case "ON":
+                    if (memo == null) {
+                        memo = new ExecutionCache();
+                        handler.setMemo(memo);
                     }
-                }
-            }
-            // Yeni bir komut başlangıcı mı kontrol et
-            else if (commandKeywords.contains(token.toUpperCase()) && inCommand && !currentCommand.toString().trim().isEmpty()) {
-                // Mevcut komutu noktalı virgül olmadan tamamla
-                commands.add(currentCommand.toString().trim());
-                currentCommand = new StringBuilder(token);
+                    break;
+                case "OFF":
+                    memo = null;
+                    handler.setMemo(null);
+                    break;
+                case "CLEAR":
+                    if (memo != null) memo.clear();
+                    break;
+                default:
+                    throw new InvalidCommandException("MEMO expects ON, OFF, CLEAR or SIZE <entries> <MB>");
             }
-            // Normal token, mevcut komuta ekle
-            else {
-                if (inCommand) {
-                    currentCommand.append(" ");
-                } else {
-                    inCommand = true;
+        } else if (tokens.size() == 4 && tokens.get(1).equalsIgnoreCase("SIZE")) {
+            try {
+                int entries = Integer.parseInt(tokens.get(2));
+                long megabytes = Long.parseLong(tokens.get(3));
+                if (entries <= 0 || megabytes <= 0) {
+                    throw new InvalidCommandException("MEMO SIZE requires positive limits");
                 }
-                currentCommand.append(token);
+                if (memo == null) {
+                    memo = new ExecutionCache();
+                    handler.setMemo(memo);
+                }
+                memo.setLimits(entries, megabytes << 20);
+            } catch (NumberFormatException e) {
+                throw new InvalidCommandException("MEMO SIZE requires positive limits");
             }
+        } else if (tokens.size() != 1) {
+            throw new InvalidCommandException("MEMO expects ON, OFF, CLEAR or SIZE <entries> <MB>");
         }
+        return memo == null ? "MEMO OFF" : "MEMO ON " + memo.report();
+    }
 
-        // Kalan komut varsa ekle
-        if (inCommand && !currentCommand.toString().trim().isEmpty()) {
-            commands.add(currentCommand.toString().trim());
+    // Tüm oturumların paylaştığı durum: günlük dosyası, LOAD önbelleği ve sayaçlar. Salt okunur raporlara izin var
+    private static boolean changesProcessSettings(String cmd, List<String> tokens) {
+        switch (cmd) {
+            case "LOG":
+                return true;
+            case "CACHE":
+            case "STATS":
+                return tokens.size() > 1;
+            default:
+                return false;
         }
-
-        return commands;
     }
 
-    // TRANSITIONS komutu için özel tokenize metodu
-    private List<String> tokenizeTransitionCommand(String input) {
-        List<String> tokens = new ArrayList<>();
-        String[] parts = input.trim().split("\\s+");
-
-        if (parts.length > 0) {
-            tokens.add(parts[0]); // TRANSITIONS komutunu ekle
-
-            // Tüm geçişleri virgülle ayrılmış kabul et
-            StringBuilder transitions = new StringBuilder();
-            for (int i = 1; i < parts.length; i++) {
-                transitions.append(parts[i]).append(" ");
+    // STATS | STATS RESET | STATS ON | STATS OFF
+    private String handleStatsCommand(List<String> tokens) throws InvalidCommandException {
+        if (tokens.size() == 1) {
+            return Metrics.report();
+        }
+        if (tokens.size() == 2) {
+            switch (tokens.get(1).toUpperCase()) {
+                case "RESET":
+                    Metrics.reset();
+                    return "STATS RESET";
+                case "ON":
+                    Metrics.setEnabled(true);
+                    return "STATS ON";
+                case "OFF":
+                    Metrics.setEnabled(false);
+                    return "STATS OFF";
+                default:
+                    break;
             }
+        }
+        throw new InvalidCommandException("STATS expects RESET, ON or OFF");
+    }
 
-            // Virgülle ayrılmış geçişleri işle
-            String transitionsStr = transitions.toString().trim();
-            if (!transitionsStr.isEmpty()) {
-                tokens.add(transitionsStr); // Transitions parametresini tek parça olarak ekle
+    // LOG <dosya> COMMAND | LOG <dosya> INTERVAL <ms> | LOG <dosya> CLOSE
+    private String startLoggingWithDurability(List<String> tokens) throws InvalidCommandException {
+        String level = tokens.get(2).toUpperCase();
+        if (level.equals("COMMAND") && tokens.size() == 3) {
+            return Logger.startLogging(tokens.get(1), Logger.Durability.COMMAND, 0);
+        }
+        if (level.equals("CLOSE") && tokens.size() == 3) {
+            return Logger.startLogging(tokens.get(1), Logger.Durability.CLOSE, 0);
+        }
+        if (level.equals("INTERVAL") && tokens.size() == 4) {
+            try {
+                long millis = Long.parseLong(tokens.get(3));
+                if (millis > 0) {
+                    return Logger.startLogging(tokens.get(1), Logger.Durability.INTERVAL, millis);
+                }
+            } catch (NumberFormatException e) {
+                // aşağıdaki hata mesajına düş
             }
+            throw new InvalidCommandException("LOG INTERVAL requires a positive number of milliseconds");
         }
-
-        return tokens;
+        throw new InvalidCommandException("LOG command requires filename and optional COMMAND, INTERVAL <ms> or CLOSE");
     }
 
-    // Normal komutlar için tokenize metodu
-    private List<String> tokenizeCommand(String input) {
-        List<String> tokens = new ArrayList<>();
-        for (String tok : input.trim().split("\\s+")) {
-            if (!tok.isEmpty()) tokens.add(tok);
+   public String processCommand(List<String> tokens) throws InvalidCommandException {
+        if (!Metrics.isEnabled() || tokens.isEmpty()) {
+            return runCommand(tokens);
+        }
+        String cmd = tokens.get(0).toUpperCase();
+        if (cmd.equals("STATS")) {
+            return runCommand(tokens);
+        }
+        long[] work = Metrics.work();
+        long symbolsBefore = work[0];
+        long bytesBefore = work[1];
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = runCommand(tokens);
+            failed = result != null && result.startsWith("Error");
+            return result;
+        } finally {
+            Metrics.forCommand(cmd).record(System.nanoTime() - start, failed,
+                    work[0] - symbolsBefore, work[1] - bytesBefore);
         }
-        return tokens;
     }
 
-   public String processCommand(List<String> tokens) throws InvalidCommandException {
+    private String runCommand(List<String> tokens) throws InvalidCommandException {
         if (tokens.isEmpty()) {
             throw new InvalidCommandException("No command provided");
         }
        String cmd = tokens.get(0).toUpperCase();
+       if (networkSession && changesProcessSettings(cmd, tokens)) {
+           return "Error: " + cmd + " changes process-wide settings and is not available in network sessions.";
+       }
+       if (attached != null && editDepth == 0) {
+           if (MachineRegistry.isEdit(tokens)) {
+               return runEdit(tokens);
+           }
+           refresh();
+       }
        String result = null;
-       String commandString = String.join(" ", tokens) + ";";
         try {
             switch (cmd) {
                 case "SYMBOLS":
                     if (tokens.size() == 1) {
-                        return handler.getFSM().getSymbols().toString();
+                        return handler.getFSM().symbolsView().toString();
                     } else {
                         String[] syms = tokens.subList(1, tokens.size())
                                 .toArray(new String[0]);
@@ -1363,7 +5162,7 @@ class CommandProcessor {
 
                 case "FINAL-STATES":
                     if (tokens.size() == 1) {
-                        return handler.getFSM().getFinalStates().toString();
+                        return handler.getFSM().finalStatesView().toString();
                     } else {
                         String[] fs = tokens.subList(1, tokens.size())
                                 .toArray(new String[0]);
@@ -1374,9 +5173,7 @@ class CommandProcessor {
                     if (tokens.size() == 1) {
                         return handler.getFSM().getTransitions().toString();
                     } else {
-                        String raw = String.join(" ", tokens.subList(1, tokens.size()));
-                        String[] parts = raw.split("\\s*,\\s*");
-                        handler.handleTransitionsCommand(parts);
+                        handler.handleTransitionsCommand(tokens.subList(1, tokens.size()));
                     }break;
 
                 case "PRINT":
@@ -1403,19 +5200,19 @@ class CommandProcessor {
                     break;
 
                 case "LOAD":
-                    if (tokens.size() != 2) {
+                    boolean mapped = tokens.size() == 3 && tokens.get(2).equalsIgnoreCase("MAPPED");
+                    if (tokens.size() != 2 && !mapped) {
                         throw new InvalidCommandException("LOAD requires filename");
                     }
                     String fn = tokens.get(1);
+                    if (mapped && !fn.toLowerCase().endsWith(".fs")) {
+                        throw new InvalidCommandException("LOAD ... MAPPED requires a .fs file");
+                    }
                     try {
                     if (fn.toLowerCase().endsWith(".fs")) {
-                        FSM loaded = serializer.deserializeFSM(fn);
-                        this.fsm = loaded;
-                        this.handler = new FSMCommandHandler(fsm);
-                        this.fileManager = new FileManager(fsm);
+                        replaceMachine(mapped ? serializer.deserializeFSM(fn, true) : loadCompiledFile(fn));
                     } else {
-                        // Dosyadan okuma ve komutları işleme
-                        handleLoadFromTextFile(fn);
+                        result = loadScript(fn);
                     }
                     } catch (FileOperationException | InvalidFileNameException | InvalidFilePathException | InvalidFileFormatException e){
                         result = "Error: " + e.getMessage();
@@ -1424,12 +5221,85 @@ class CommandProcessor {
                     break;
 
                 case "EXECUTE":
+                    if (tokens.size() >= 2 && InputPattern.isPattern(tokens)) {
+                        result = handler.executePattern(String.join(" ", tokens.subList(1, tokens.size())), false);
+                        break;
+                    }
                     if (tokens.size() != 2) {
                         throw new InvalidCommandException("EXECUTE requires input string");
                     }
                     result= handler.executeFSM(tokens.get(1));
                     break;
 
+                case "EXECUTE-VERDICT":
+                    if (tokens.size() >= 2 && InputPattern.isPattern(tokens)) {
+                        result = handler.executePattern(String.join(" ", tokens.subList(1, tokens.size())), true);
+                        break;
+                    }
+                    if (tokens.size() != 2) {
+                        throw new InvalidCommandException("EXECUTE-VERDICT requires input string");
+                    }
+                    result = handler.executeVerdict(tokens.get(1));
+                    break;
+
+                case "EXECUTE-BATCH":
+                    boolean prefix = tokens.size() >= 3 && tokens.get(tokens.size() - 1).equalsIgnoreCase("PREFIX");
+                    int batchArgs = tokens.size() - (prefix ? 1 : 0);
+                    if (batchArgs != 2 && batchArgs != 3) {
+                        throw new InvalidCommandException("EXECUTE-BATCH requires input filename, optional output filename and optional PREFIX");
+                    }
+                    result = handler.executeBatch(tokens.get(1), batchArgs == 3 ? tokens.get(2) : null, prefix);
+                    break;
+
+                case "EXECUTE-FILE":
+                    if (tokens.size() != 2) {
+                        throw new InvalidCommandException("EXECUTE-FILE requires filename");
+                    }
+                    result = handler.executeFile(tokens.get(1));
+                    break;
+
+                case "MODE":
+                    result = handler.handleModeCommand(tokens.subList(1, tokens.size()).toArray(new String[0]));
+                    break;
+
+                case "STORAGE":
+                    result = handler.handleStorageCommand(tokens.subList(1, tokens.size()).toArray(new String[0]));
+                    break;
+
+                case "MINIMIZE":
+                    if (tokens.size() != 1) {
+                        throw new InvalidCommandException("MINIMIZE takes no arguments");
+                    }
+                    result = handler.minimizeFSM();
+                    break;
+
+                case "STATS":
+                    result = handleStatsCommand(tokens);
+                    break;
+
+                case "CACHE":
+                    result = handleCacheCommand(tokens);
+                    break;
+
+                case "MEMO":
+                    result = handleMemoCommand(tokens);
+                    break;
+
+                case "USE":
+                    result = handleUseCommand(tokens);
+                    break;
+
+                case "LIST":
+                    if (tokens.size() != 1) {
+                        throw new InvalidCommandException("LIST takes no arguments");
+                    }
+                    result = MachineRegistry.list(attached == null ? null : attached.name);
+                    break;
+
+                case "DROP":
+                    result = handleDropCommand(tokens);
+                    break;
+
                 case "CLEAR":
                     fsm.clear();
                     result= "CLEARED";
@@ -1441,7 +5311,7 @@ class CommandProcessor {
                     } else if(tokens.size()==2) {
                         result = Logger.startLogging(tokens.get(1));
                     } else {
-                        throw new InvalidCommandException("LOG command requires filename");
+                        result = startLoggingWithDurability(tokens);
                     }break;
                 default:
                     throw new InvalidCommandException("Invalid command: " + cmd);
@@ -1451,7 +5321,7 @@ class CommandProcessor {
                 if (result != null) {
                     logResult = result;
                 }
-                Logger.log(commandString, logResult);
+                Logger.log(String.join(" ", tokens) + ";", logResult);
             }
             return result;
         } catch (Exception e) {
@@ -1482,6 +5352,159 @@ class GitVersion {
 }
 
 
+// ForkJoin görevi: kurulduğu thread'in oturum çıktısını, çalıştığı işçi thread'inde de kullanır.
+// Alt görevler computeInSession içinde kurulduğu için aynı soketi miras alır.
+abstract class SessionAction extends RecursiveAction {
+    private final PrintStream sink = SessionOutput.current();
+
+    @Override
+    protected final void compute() {
+        SessionOutput.runWith(sink, this::computeInSession);
+    }
+
+    protected abstract void computeInSession();
+}
+
+// --serve modunda System.out/err: oturum thread'i kendi soketine yazar, diğerleri konsola
+final class SessionOutput extends PrintStream {
+    private static final ThreadLocal<PrintStream> SESSION = new ThreadLocal<>();
+    private final PrintStream console;
+
+    private SessionOutput(PrintStream console) {
+        super(console, true);
+        this.console = console;
+    }
+
+    static void install() {
+        if (!(System.out instanceof SessionOutput)) System.setOut(new SessionOutput(System.out));
+        if (!(System.err instanceof SessionOutput)) System.setErr(new SessionOutput(System.err));
+    }
+
+    static void bind(PrintStream out) {
+        SESSION.set(out);
+    }
+
+    static void unbind() {
+        SESSION.remove();
+    }
+
+    // Bu thread'in oturum çıktısı, yoksa null (konsol)
+    static PrintStream current() {
+        return SESSION.get();
+    }
+
+    // Havuz thread'lerinde çalışan iş, başlatan oturumun soketine yazar; thread'in önceki bağı geri yüklenir
+    static void runWith(PrintStream sink, Runnable task) {
+        PrintStream previous = swap(sink);
+        try {
+            task.run();
+        } finally {
+            swap(previous);
+        }
+    }
+
+    // Görevi şu anki thread'in oturum çıktısına bağlar
+    static <T> Callable<T> inherit(Callable<T> task) {
+        PrintStream sink = SESSION.get();
+        return () -> {
+            PrintStream previous = swap(sink);
+            try {
+                return task.call();
+            } finally {
+                swap(previous);
+            }
+        };
+    }
+
+    private static PrintStream swap(PrintStream sink) {
+        PrintStream previous = SESSION.get();
+        if (sink == null) SESSION.remove(); else SESSION.set(sink);
+        return previous;
+    }
+
+    private PrintStream target() {
+        PrintStream session = SESSION.get();
+        return session != null ? session : console;
+    }
+
+    @Override public void write(int b) { target().write(b); }
+    @Override public void write(byte[] buf, int off, int len) { target().write(buf, off, len); }
+    @Override public void write(byte[] buf) throws IOException { target().write(buf); }
+    @Override public void writeBytes(byte[] buf) { target().writeBytes(buf); }
+    @Override public void flush() { target().flush(); }
+    @Override public void close() { if (SESSION.get() == null) console.close(); }
+    @Override public boolean checkError() { return target().checkError(); }
+    @Override public void print(boolean b) { target().print(b); }
+    @Override public void print(char c) { target().print(c); }
+    @Override public void print(int i) { target().print(i); }
+    @Override public void print(long l) { target().print(l); }
+    @Override public void print(float f) { target().print(f); }
+    @Override public void print(double d) { target().print(d); }
+    @Override public void print(char[] s) { target().print(s); }
+    @Override public void print(String s) { target().print(s); }
+    @Override public void print(Object obj) { target().print(obj); }
+    @Override public void println() { target().println(); }
+    @Override public void println(boolean x) { target().println(x); }
+    @Override public void println(char x) { target().println(x); }
+    @Override public void println(int x) { target().println(x); }
+    @Override public void println(long x) { target().println(x); }
+    @Override public void println(float x) { target().println(x); }
+    @Override public void println(double x) { target().println(x); }
+    @Override public void println(char[] x) { target().println(x); }
+    @Override public void println(String x) { target().println(x); }
+    @Override public void println(Object x) { target().println(x); }
+    @Override public PrintStream printf(String format, Object... args) { return target().printf(format, args); }
+    @Override public PrintStream printf(Locale l, String format, Object... args) { return target().printf(l, format, args); }
+    @Override public PrintStream format(String format, Object... args) { return target().format(format, args); }
+    @Override public PrintStream format(Locale l, String format, Object... args) { return target().format(l, format, args); }
+    @Override public PrintStream append(CharSequence csq) { return target().append(csq); }
+    @Override public PrintStream append(CharSequence csq, int start, int end) { return target().append(csq, start, end); }
+    @Override public PrintStream append(char c) { return target().append(c); }
+}
+
+// Çok kullanıcılı mod: her bağlantı kendi sanal thread'inde, kendi CommandInterpreter'ı ile
+// REPL protokolünü konuşur ("? " istemi cevabın bittiğini gösterir).
+// Yüklenen .fs makineleri MachineCache üzerinden aynı değişmez CompiledFSM'i paylaşır.
+class FSMServer {
+    private static final int BACKLOG = 4096;
+    private static final int OUTPUT_BUFFER = 1 << 13;
+
+    private final int port;
+    private final AtomicLong sessions = new AtomicLong();
+
+    FSMServer(int port) {
+        this.port = port;
+    }
+
+    // Dosya yazan komutlar (COMPILE, LOG) olduğu için yalnızca loopback'e bağlanır
+    void serve() throws IOException {
+        SessionOutput.install();
+        try (ServerSocket server = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress())) {
+            System.out.println("Serving on " + server.getInetAddress().getHostAddress() + ":" + server.getLocalPort());
+            while (true) {
+                Socket socket = server.accept();
+                Thread.ofVirtual().name("fsm-session-" + sessions.incrementAndGet()).start(() -> session(socket));
+            }
+        }
+    }
+
+    private static void session(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintStream out = new PrintStream(
+                     new BufferedOutputStream(socket.getOutputStream(), OUTPUT_BUFFER), false, StandardCharsets.UTF_8)) {
+            socket.setTcpNoDelay(true);
+            SessionOutput.bind(out);
+            new CommandInterpreter(false).startREPL(in);
+        } catch (IOException e) {
+            // istemci bağlantıyı kapattı
+        } finally {
+            SessionOutput.unbind();
+        }
+    }
+}
+
     public class FSMmain {
         private static final String VERSION = GitVersion.getVersion();  // TODO: replace with your Git version identifier
 
@@ -1491,6 +5514,11 @@ class GitVersion {
                     .format(DateTimeFormatter.ofPattern("MMMM d, yyyy, HH:mm"));
             System.out.println("FSM DESIGNER " + VERSION + " " + now);
 
+            if (args.length > 0 && args[0].equals("--serve")) {
+                serve(args);
+                return;
+            }
+
             CommandInterpreter interpreter = new CommandInterpreter();
 
             // FR15: if a filename was passed on the command line, load it first
@@ -1502,6 +5530,21 @@ class GitVersion {
             // Start interactive mode
             interpreter.startREPL(); // Artık InvalidCommandException fırlatmıyor
         }
+
+        private static void serve(String[] args) {
+            int port;
+            try {
+                port = Integer.parseInt(args[1]);
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                System.err.println("Usage: FSMmain --serve <port>");
+                return;
+            }
+            try {
+                new FSMServer(port).serve();
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error: cannot serve on port " + port + ": " + e.getMessage());
+            }
+        }
     }
 
 